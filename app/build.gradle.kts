@@ -1,3 +1,5 @@
+import java.io.ByteArrayOutputStream
+
 plugins {
     java
     application
@@ -23,9 +25,19 @@ java {
         test {
             java.setSrcDirs(listOf("src/test"))
         }
+        create("jmh") {
+            java.setSrcDirs(listOf("src/jmh"))
+            compileClasspath += main.get().output + main.get().compileClasspath
+            runtimeClasspath += main.get().output + main.get().runtimeClasspath
+        }
     }
 }
 
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
 application {
     mainClass.set("ru.itmo.se.cli.App")
 }
@@ -46,6 +58,72 @@ tasks.test {
     useJUnitPlatform()
 }
 
+tasks.named<JavaCompile>("compileJmhJava") {
+    options.release.set(11)
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "$ ./gradlew jmh -PjmhArgs='BuiltinsBenchmark -p fileSize=1GB' # runs JMH benchmarks"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val resultsFile = file("${buildDir}/reports/jmh/results.json")
+    args("-prof", "gc", "-rf", "json", "-rff", resultsFile.path)
+    args((project.findProperty("jmhArgs") as String? ?: "").split(" ").filter { it.isNotBlank() })
+    doFirst {
+        resultsFile.parentFile.mkdirs()
+    }
+}
+
+val cdsArchiveName = "app.jsa"
+
+tasks.startScripts {
+    doLast {
+        // подключает CDS-архив, если он собран задачей cdsArchive
+        val script = unixScript.readText()
+        val launch = "exec \"\$JAVACMD\" \"\$@\""
+        if (!script.contains(launch))
+            throw GradleException("Cannot find '$launch' in ${unixScript.name} to add the CDS archive")
+        unixScript.writeText(script.replace(launch, """
+            |CDS_ARCHIVE=${'$'}APP_HOME/lib/$cdsArchiveName
+            |if [ -f "${'$'}CDS_ARCHIVE" ]; then
+            |    set -- -XX:SharedArchiveFile="${'$'}CDS_ARCHIVE" -Xshare:auto "${'$'}@"
+            |fi
+            |
+            |$launch""".trimMargin()))
+    }
+}
+
+tasks.register<Exec>("cdsArchive") {
+    group = "distribution"
+    description = "$ ./gradlew cdsArchive # builds AppCDS archive of the installed interpreter from a training run"
+    dependsOn(tasks.installDist)
+    val installDir = file("${buildDir}/install/app")
+    val archive = file("${installDir}/lib/$cdsArchiveName")
+    workingDir = rootDir
+    executable = file("${installDir}/bin/app").path
+    args(file("src/cds/training.sh").path)
+    environment("JAVA_OPTS", "-XX:ArchiveClassesAtExit=${archive.path}")
+    standardOutput = ByteArrayOutputStream()
+    errorOutput = ByteArrayOutputStream()
+    doFirst {
+        archive.delete()
+    }
+}
+
+tasks.register<JavaExec>("startupBenchmark") {
+    group = "benchmark"
+    description = "$ ./gradlew startupBenchmark -PstartupMaxMillis=300 # measures interpreter startup time"
+    dependsOn("cdsArchive")
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("ru.itmo.se.cli.benchmark.StartupBenchmark")
+    args(
+        file("${buildDir}/install/app/bin/app").path,
+        file("${buildDir}/reports/startup/results.json").path,
+        project.findProperty("startupMaxMillis") as String? ?: "0"
+    )
+}
+
 tasks.register("runOnGitHub") {
     dependsOn(":check", ":test")
     group = "custom"
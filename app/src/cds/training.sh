@@ -0,0 +1,16 @@
+# Типичные pipeline-ы, по которым собирается CDS-архив интерпретатора (см. задачу cdsArchive).
+# Скрипт выполняется в корне проекта.
+file=README.md
+echo "training run" | wc
+cat $file | grep -i "pipeline" | wc
+grep -A 1 "cat" $file
+grep -w "[a-z]+" $file | wc
+grep -F "##" $file
+wc $file README.md
+ls | grep -i "app"
+hash
+x=1 y='2' z="$x$y"
+echo $z ${x} '$y'
+echo "unterminated
+| wc
+pwd
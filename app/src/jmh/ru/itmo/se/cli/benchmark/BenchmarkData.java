@@ -0,0 +1,128 @@
+package ru.itmo.se.cli.benchmark;
+
+import ru.itmo.se.cli.environment.Descriptor;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Генератор данных для бенчмарков: командных строк и файлов заданного размера.
+ *
+ * @author Sergey Sokolvyak
+ */
+final class BenchmarkData {
+    static final String MATCHING_WORD = "req-42";
+
+    private static final long SEED = 42;
+    private static final int MATCHING_LINE_PERIOD = 100;
+    private static final int REQUEST_ID_BOUND = 1_000_000;
+    private static final long KILOBYTE = 1024;
+    private static final long MEGABYTE = KILOBYTE * KILOBYTE;
+    private static final long GIGABYTE = MEGABYTE * KILOBYTE;
+    private static final int UNIT_LENGTH = 2;
+
+    private static final String[] WORDS = {
+        "INFO", "WARN", "user", "request", "took", "ms", "session", "GET", "/api/v1/items", "200", "404"
+    };
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Собирает pipeline примерно заданной длины, ссылающийся на переменные var0, var1, ...
+     *
+     * @param length         минимальная длина командной строки
+     * @param variablesCount число переменных, на которые ссылается строка
+     * @return командная строка
+     */
+    static String commandLine(int length, int variablesCount) {
+        var sb = new StringBuilder("echo");
+        for (int i = 0; i < variablesCount; i++)
+            sb.append(i % 2 == 0 ? " $var" + i : " \"${var" + i + "} text\"");
+        sb.append(" 'single $quoted'");
+        int argument = 0;
+        while (sb.length() < length)
+            sb.append(" arg").append(argument++);
+        return sb.append(" | grep -i ").append(MATCHING_WORD).append(" | wc").toString();
+    }
+
+    /**
+     * Создает временный файл из строк лог-формата; каждая сотая строка содержит {@link #MATCHING_WORD}.
+     *
+     * @param size       минимальный размер файла в байтах
+     * @param lineLength минимальная длина строки
+     * @return путь к созданному файлу
+     * @throws IOException если файл не удалось записать
+     */
+    static Path logFile(long size, int lineLength) throws IOException {
+        Path file = Files.createTempFile("cli-benchmark", ".log");
+        var random = new Random(SEED);
+        long written = 0;
+        long lineNumber = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            var line = new StringBuilder();
+            while (written < size) {
+                line.setLength(0);
+                line.append(lineNumber % MATCHING_LINE_PERIOD == 0
+                    ? MATCHING_WORD
+                    : "req-" + random.nextInt(REQUEST_ID_BOUND));
+                while (line.length() < lineLength)
+                    line.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+                line.append('\n');
+                writer.append(line);
+                written += line.length();
+                lineNumber++;
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Разбирает размер вида 64KB, 16MB или 1GB.
+     *
+     * @param size размер с необязательной единицей измерения
+     * @return размер в байтах
+     */
+    static long parseSize(String size) {
+        String normalized = size.trim().toUpperCase(Locale.ROOT);
+        long multiplier = 1;
+        if (normalized.endsWith("KB"))
+            multiplier = KILOBYTE;
+        else if (normalized.endsWith("MB"))
+            multiplier = MEGABYTE;
+        else if (normalized.endsWith("GB"))
+            multiplier = GIGABYTE;
+        String digits = multiplier == 1 ? normalized : normalized.substring(0, normalized.length() - UNIT_LENGTH);
+        return Long.parseLong(digits) * multiplier;
+    }
+
+    /**
+     * Создает дескриптор, отбрасывающий весь вывод команды.
+     *
+     * @return дескриптор без ввода, отбрасывающий вывод
+     */
+    static Descriptor nullDescriptor() {
+        return new Descriptor() {
+            @Override
+            public InputStream getInputStream() {
+                return InputStream.nullInputStream();
+            }
+
+            @Override
+            public OutputStream getOutputStream() {
+                return OutputStream.nullOutputStream();
+            }
+
+            @Override
+            public DescriptorType getType() {
+                return DescriptorType.File;
+            }
+        };
+    }
+}
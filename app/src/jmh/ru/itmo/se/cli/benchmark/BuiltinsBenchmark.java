@@ -0,0 +1,120 @@
+package ru.itmo.se.cli.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.itmo.se.cli.command.Command;
+import ru.itmo.se.cli.command.builder.CommandsPipelineBuilder;
+import ru.itmo.se.cli.environment.Session;
+import ru.itmo.se.cli.parser.Token;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки встроенных команд cat, grep и wc на сгенерированных файлах.
+ * Размер файла задается параметром fileSize, например {@code -p fileSize=1GB}.
+ *
+ * @author Sergey Sokolvyak
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = BuiltinsBenchmark.MEASUREMENT_ITERATIONS)
+@Fork(1)
+public class BuiltinsBenchmark {
+    static final int MEASUREMENT_ITERATIONS = 5;
+
+    private static final Session SESSION = Session.system();
+
+    @Param({"64KB", "16MB"})
+    private String fileSize;
+
+    @Param({"80"})
+    private int lineLength;
+
+    private Path file;
+
+    /**
+     * Создает файл заданного размера.
+     *
+     * @throws IOException если файл не удалось записать
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = BenchmarkData.logFile(BenchmarkData.parseSize(fileSize), lineLength);
+    }
+
+    /**
+     * Удаляет созданный файл.
+     *
+     * @throws IOException если файл не удалось удалить
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Выводит файл командой cat.
+     *
+     * @return код возврата команды
+     */
+    @Benchmark
+    public int cat() {
+        return execute("cat", file.toString());
+    }
+
+    /**
+     * Ищет в файле подстроку без метасимволов.
+     *
+     * @return код возврата команды
+     */
+    @Benchmark
+    public int grepLiteral() {
+        return execute("grep", BenchmarkData.MATCHING_WORD, file.toString());
+    }
+
+    /**
+     * Ищет в файле строки по регулярному выражению.
+     *
+     * @return код возврата команды
+     */
+    @Benchmark
+    public int grepRegex() {
+        return execute("grep", "req-4[0-9]+ ", file.toString());
+    }
+
+    /**
+     * Ищет в файле подстроку без учета регистра с выводом двух строк после совпадения.
+     *
+     * @return код возврата команды
+     */
+    @Benchmark
+    public int grepIgnoreCaseWithContext() {
+        return execute("grep", "-i", "-A", "2", BenchmarkData.MATCHING_WORD, file.toString());
+    }
+
+    /**
+     * Считает строки, слова и байты файла командой wc.
+     *
+     * @return код возврата команды
+     */
+    @Benchmark
+    public int wc() {
+        return execute("wc", file.toString());
+    }
+
+    private static int execute(String name, String... arguments) {
+        List<Token> tokens = new ArrayList<>();
+        tokens.add(new Token(name, Token.Type.Command));
+        for (String argument : arguments)
+            tokens.add(new Token(argument, Token.Type.Arg));
+        Command command = CommandsPipelineBuilder.buildPipe(tokens, SESSION).get(0);
+        command.setOutput(BenchmarkData.nullDescriptor());
+        return command.execute();
+    }
+}
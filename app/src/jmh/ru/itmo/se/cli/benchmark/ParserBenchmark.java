@@ -0,0 +1,88 @@
+package ru.itmo.se.cli.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.itmo.se.cli.command.Command;
+import ru.itmo.se.cli.command.builder.CommandsPipelineBuilder;
+import ru.itmo.se.cli.environment.Context;
+import ru.itmo.se.cli.environment.Session;
+import ru.itmo.se.cli.parser.CommandLineParser;
+import ru.itmo.se.cli.parser.ExpansionProvider;
+import ru.itmo.se.cli.parser.SimpleCommandLineParser;
+import ru.itmo.se.cli.parser.Token;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки разбора командной строки, подстановки переменных и сборки pipeline-а.
+ *
+ * @author Sergey Sokolvyak
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = ParserBenchmark.WARMUP_ITERATIONS, time = 1)
+@Measurement(iterations = ParserBenchmark.MEASUREMENT_ITERATIONS, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    static final int WARMUP_ITERATIONS = 3;
+    static final int MEASUREMENT_ITERATIONS = 5;
+
+    @Param({"32", "256", "4096"})
+    private int lineLength;
+
+    @Param({"0", "4", "32"})
+    private int variablesCount;
+
+    private final Session session = Session.system();
+    private final Context context = session.getContext();
+    private CommandLineParser parser;
+    private ExpansionProvider expansionProvider;
+    private String line;
+    private String fragment;
+    private List<Token> tokens;
+
+    /**
+     * Задает переменные и готовит командную строку заданной длины.
+     */
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < variablesCount; i++)
+            context.setOrAddVariable("var" + i, "value" + i);
+        expansionProvider = new ExpansionProvider();
+        parser = new SimpleCommandLineParser(expansionProvider);
+        line = BenchmarkData.commandLine(lineLength, variablesCount);
+        fragment = line.replace("\"", "").replace("'", "");
+        tokens = parser.parse(line, context);
+    }
+
+    /**
+     * Разбирает командную строку с подстановкой переменных.
+     *
+     * @return список токенов
+     */
+    @Benchmark
+    public List<Token> parse() {
+        return parser.parse(line, context);
+    }
+
+    /**
+     * Подставляет значения переменных в строку без кавычек.
+     *
+     * @return строка с подставленными значениями
+     */
+    @Benchmark
+    public String expandString() {
+        return expansionProvider.expandString(fragment, context);
+    }
+
+    /**
+     * Собирает pipeline из разобранных токенов.
+     *
+     * @return список команд
+     */
+    @Benchmark
+    public List<Command> buildPipe() {
+        return CommandsPipelineBuilder.buildPipe(tokens, session);
+    }
+}
@@ -0,0 +1,127 @@
+package ru.itmo.se.cli.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Бенчмарк времени запуска установленного интерпретатора: время до приветствия интерактивного режима
+ * и время выполнения {@code app -c "echo x"}. JMH для этого не подходит, так как измеряется запуск
+ * отдельного процесса JVM, поэтому каждый замер запускает лаунчер заново.
+ * Запуск: {@code ./gradlew startupBenchmark}; если задано свойство {@code startupMaxMillis},
+ * бенчмарк завершается с ошибкой, когда медиана одного из замеров превышает этот порог.
+ *
+ * @author Sergey Sokolvyak
+ */
+public final class StartupBenchmark {
+    private static final int WARMUP_RUNS = 2;
+    private static final int MEASURED_RUNS = 10;
+    private static final String PROMPT = "Enter the commands";
+    private static final int MEDIAN = 50;
+    private static final int P90 = 90;
+    private static final double PERCENT = 100.0;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private StartupBenchmark() {
+    }
+
+    /**
+     * Запускает бенчмарк.
+     *
+     * @param args путь к лаунчеру, путь к файлу результатов и порог медианы в миллисекундах (0 — без порога)
+     * @throws Exception если лаунчер не удалось запустить или он отработал с ошибкой
+     */
+    public static void main(String[] args) throws Exception {
+        String launcher = args[0];
+        Path results = Path.of(args[1]);
+        long maxMillis = Long.parseLong(args[2]);
+
+        double[] prompt = measure(() -> timeToPrompt(launcher));
+        double[] command = measure(() -> timeToRunCommand(launcher));
+        String report = String.format(Locale.ROOT,
+            "{\"firstPrompt\": %s, \"echoCommand\": %s}%n", toJson(prompt), toJson(command));
+        Files.createDirectories(results.getParent());
+        Files.writeString(results, report);
+
+        System.out.printf(Locale.ROOT, "first prompt:   median %.1f ms, p90 %.1f ms%n",
+            percentile(prompt, MEDIAN), percentile(prompt, P90));
+        System.out.printf(Locale.ROOT, "-c \"echo x\":    median %.1f ms, p90 %.1f ms%n",
+            percentile(command, MEDIAN), percentile(command, P90));
+        System.out.println("Results: " + results);
+
+        if (maxMillis > 0 && Math.max(percentile(prompt, MEDIAN), percentile(command, MEDIAN)) > maxMillis) {
+            System.err.println("Startup time exceeds " + maxMillis + " ms");
+            System.exit(1);
+        }
+    }
+
+    private interface Run {
+        long nanos() throws IOException, InterruptedException;
+    }
+
+    private static double[] measure(Run run) throws IOException, InterruptedException {
+        for (int i = 0; i < WARMUP_RUNS; i++)
+            run.nanos();
+        var millis = new double[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++)
+            millis[i] = run.nanos() / NANOS_PER_MILLI;
+        Arrays.sort(millis);
+        return millis;
+    }
+
+    private static long timeToPrompt(String launcher) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(launcher).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        long elapsed = -1;
+        try (var stdout = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = stdout.readLine()) != null) {
+                if (line.startsWith(PROMPT)) {
+                    elapsed = System.nanoTime() - start;
+                    break;
+                }
+            }
+            try (OutputStream stdin = process.getOutputStream()) {
+                stdin.write("exit\n".getBytes(StandardCharsets.UTF_8));
+            }
+            stdout.transferTo(Writer.nullWriter());
+        }
+        if (process.waitFor() != 0 || elapsed < 0)
+            throw new IllegalStateException(launcher + " did not print the prompt");
+        return elapsed;
+    }
+
+    private static long timeToRunCommand(String launcher) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(launcher, "-c", "echo x")
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+        String output;
+        try (InputStream stdout = process.getInputStream()) {
+            output = new String(stdout.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        int exitCode = process.waitFor();
+        long elapsed = System.nanoTime() - start;
+        if (exitCode != 0 || !output.equals("x\n"))
+            throw new IllegalStateException(launcher + " -c \"echo x\" failed with exit code " + exitCode);
+        return elapsed;
+    }
+
+    private static double percentile(double[] sorted, int percent) {
+        int index = (int) Math.ceil(percent / PERCENT * sorted.length) - 1;
+        return sorted[Math.max(index, 0)];
+    }
+
+    private static String toJson(double[] sorted) {
+        return String.format(Locale.ROOT, "{\"medianMillis\": %.1f, \"p90Millis\": %.1f, \"minMillis\": %.1f}",
+            percentile(sorted, MEDIAN), percentile(sorted, P90), sorted[0]);
+    }
+}
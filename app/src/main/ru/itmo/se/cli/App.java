@@ -1,29 +1,56 @@
 package ru.itmo.se.cli;
 
-import ru.itmo.se.cli.command.builder.CommandsPipelineBuilder;
-import ru.itmo.se.cli.command.builder.PipelineBuildingException;
-import ru.itmo.se.cli.command.execution.CommandExecutionException;
 import ru.itmo.se.cli.command.execution.CommandExecutor;
-import ru.itmo.se.cli.command.execution.SignalExitException;
-import ru.itmo.se.cli.command.execution.SimpleCommandExecutor;
-import ru.itmo.se.cli.parser.CommandLineParser;
+import ru.itmo.se.cli.command.execution.ConcurrentCommandExecutor;
+import ru.itmo.se.cli.command.execution.RecordingCommandExecutor;
+import ru.itmo.se.cli.command.execution.ThreadFactories;
+import ru.itmo.se.cli.command.execution.TracingCommandExecutor;
+import ru.itmo.se.cli.environment.Console;
+import ru.itmo.se.cli.environment.Context;
+import ru.itmo.se.cli.environment.Session;
 import ru.itmo.se.cli.parser.ExpansionProvider;
 import ru.itmo.se.cli.parser.SimpleCommandLineParser;
-import ru.itmo.se.cli.parser.ParsingException;
+import ru.itmo.se.cli.server.DaemonToken;
+import ru.itmo.se.cli.server.ShellServer;
+import ru.itmo.se.cli.trace.Tracer;
 
-import java.util.Scanner;
+import java.io.ByteArrayInputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Arrays;
 
 /**
  * Класс, отвечающий за запуск и работу интерпретатора.
+ * Без аргументов интерпретатор читает команды из стандартного потока ввода.
+ * {@code app script.sh} и {@code app -c "commands"} выполняют команды из файла или строки
+ * без приветствия и с буферизованным выводом; код возврата последней команды становится кодом
+ * завершения процесса. С ключом {@code --daemon[=port]} интерпретатор работает как сервер,
+ * обслуживающий сессии, подключающиеся к локальному TCP-порту и отправляющие ключ из файла
+ * {@code ~/.cli/daemon-<port>.token}. Ключ {@code --trace=<file>} перед
+ * остальными аргументами записывает трассу выполнения в формате Chrome trace-event.
  *
  * @author Sergey Sokolvyak
  */
 public class App {
     private static final String COMMAND_FORMAT =
         "VARIABLE_DECLARATION... or COMMAND [ARG]... [| VARIABLE_DECLARATION... or COMMAND [ARG]...]...";
-    private static final CommandLineParser SIMPLE_COMMAND_LINE_PARSER =
-        new SimpleCommandLineParser(new ExpansionProvider());
-    private static final CommandExecutor COMMAND_EXECUTOR = new SimpleCommandExecutor();
+    private static final String DAEMON_OPTION = "--daemon";
+    private static final String COMMAND_OPTION = "-c";
+    private static final String TRACE_OPTION = "--trace=";
+    private static final String USAGE = "Usage: app [--trace=file] [script | -c commands | --daemon[=port]]";
+    private static final int SCRIPT_BUFFER_SIZE = 1024 * 1024;
+    private static final int USAGE_EXIT_CODE = 2;
+    private static final int SCRIPT_NOT_FOUND_EXIT_CODE = 127;
+    private static final int DEFAULT_DAEMON_PORT = 7077;
+    private static final String STAGE_THREAD_PREFIX = "pipeline-stage-";
+    private static final Shell SHELL = new Shell(
+        new SimpleCommandLineParser(new ExpansionProvider()), createCommandExecutor()
+    );
 
     /**
      * Запускает интерпретатор.
@@ -31,21 +58,105 @@ public class App {
      * @param args аргументы командной строки
      */
     public static void main(String[] args) {
-        System.out.println("Enter the commands in format: " + COMMAND_FORMAT);
+        if (args.length > 0 && args[0].startsWith(TRACE_OPTION)) {
+            startTracing(args[0].substring(TRACE_OPTION.length()));
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+
+        if (args.length == 0) {
+            System.out.println("Enter the commands in format: " + COMMAND_FORMAT);
+            SHELL.run(Session.system());
+            return;
+        }
+
+        if (args[0].equals(DAEMON_OPTION) || args[0].startsWith(DAEMON_OPTION + "=")) {
+            runDaemon(args[0]);
+        } else if (args[0].equals(COMMAND_OPTION) && args.length == 2) {
+            System.exit(runScript(new ByteArrayInputStream(args[1].getBytes())));
+        } else if (!args[0].startsWith("-") && args.length == 1) {
+            System.exit(runScript(Path.of(args[0])));
+        } else {
+            System.err.println(USAGE);
+            System.exit(USAGE_EXIT_CODE);
+        }
+    }
+
+    private static void startTracing(String file) {
+        Tracer tracer;
+        try {
+            tracer = Tracer.start(Path.of(file));
+        } catch (IOException | InvalidPathException e) {
+            System.err.println("Cannot create trace file " + file);
+            System.exit(1);
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                tracer.close();
+            } catch (IOException e) {
+                System.err.println("Cannot write trace: " + e.getMessage());
+            }
+        }));
+    }
+
+    private static int runScript(Path script) {
+        try (InputStream commands = Files.newInputStream(script)) {
+            return runScript(commands);
+        } catch (IOException e) {
+            System.err.println("Cannot read script " + script);
+            return SCRIPT_NOT_FOUND_EXIT_CODE;
+        }
+    }
+
+    private static int runScript(InputStream commands) {
+        var console = Console.buffered(System.in, new FileOutputStream(FileDescriptor.out), System.err,
+            SCRIPT_BUFFER_SIZE);
+        int exitCode = SHELL.run(new Session(new Context(), console), commands);
+        try {
+            console.drain();
+        } catch (IOException e) {
+            System.err.println("Cannot write output: " + e.getMessage());
+            return 1;
+        }
+        return exitCode;
+    }
 
-        String currentInput;
-        var scanner = new Scanner(System.in);
-        while (scanner.hasNext()) {
-            currentInput = scanner.nextLine();
+    private static void runDaemon(String option) {
+        int port = DEFAULT_DAEMON_PORT;
+        if (option.length() > DAEMON_OPTION.length()) {
             try {
-                COMMAND_EXECUTOR.execute(
-                    CommandsPipelineBuilder.buildPipe(SIMPLE_COMMAND_LINE_PARSER.parse(currentInput))
-                );
-            } catch (ParsingException | PipelineBuildingException | CommandExecutionException e) {
-                System.out.println(e.getMessage());
-            } catch (SignalExitException e) {
-                break;
+                port = Integer.parseInt(option.substring(DAEMON_OPTION.length() + 1));
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid port in " + option);
+                System.exit(USAGE_EXIT_CODE);
             }
         }
+
+        String token = DaemonToken.generate();
+        try (var server = new ShellServer(SHELL, port, token)) {
+            Path tokenFile = DaemonToken.defaultFile(server.getPort());
+            DaemonToken.write(tokenFile, token);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteQuietly(tokenFile)));
+            System.out.println("Listening on " + server.getPort() + ", token is in " + tokenFile);
+            server.serve();
+        } catch (IOException e) {
+            System.err.println("Daemon error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // файл ключа остается, но ключ завершенного сервера бесполезен
+        }
+    }
+
+    private static CommandExecutor createCommandExecutor() {
+        if (ThreadFactories.isVirtualRequested() && ThreadFactories.virtual(STAGE_THREAD_PREFIX).isEmpty())
+            System.err.println("Virtual threads require Java 21 or newer, platform threads are used");
+        return new TracingCommandExecutor(new RecordingCommandExecutor(
+            new ConcurrentCommandExecutor(ThreadFactories.configured(STAGE_THREAD_PREFIX))));
     }
 }
@@ -0,0 +1,115 @@
+package ru.itmo.se.cli;
+
+import ru.itmo.se.cli.command.Command;
+import ru.itmo.se.cli.command.builder.CommandsPipelineBuilder;
+import ru.itmo.se.cli.command.builder.PipelineBuildingException;
+import ru.itmo.se.cli.command.execution.CommandExecutionException;
+import ru.itmo.se.cli.command.execution.CommandExecutor;
+import ru.itmo.se.cli.command.execution.SignalExitException;
+import ru.itmo.se.cli.command.execution.TimingCommandExecutor;
+import ru.itmo.se.cli.environment.Session;
+import ru.itmo.se.cli.parser.CommandLineParser;
+import ru.itmo.se.cli.parser.ParsingException;
+import ru.itmo.se.cli.parser.Token;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * Класс, выполняющий команды сессии интерпретатора: читает строки из консоли сессии,
+ * разбирает их и запускает полученные pipeline-ы. Парсер и исполнитель не хранят состояния
+ * сессии, поэтому один экземпляр может одновременно обслуживать несколько сессий.
+ *
+ * @author Sergey Sokolvyak
+ */
+public class Shell {
+    private static final int FAILURE_EXIT_CODE = 1;
+
+    private final CommandLineParser commandLineParser;
+    private final CommandExecutor commandExecutor;
+    private final CommandExecutor timingCommandExecutor;
+
+    /**
+     * Конструктор интерпретатора.
+     *
+     * @param commandLineParser парсер командной строки
+     * @param commandExecutor   исполнитель pipeline-ов
+     */
+    public Shell(CommandLineParser commandLineParser, CommandExecutor commandExecutor) {
+        this.commandLineParser = commandLineParser;
+        this.commandExecutor = commandExecutor;
+        this.timingCommandExecutor = new TimingCommandExecutor(commandExecutor);
+    }
+
+    /**
+     * Выполняет команды, читая их из консоли сессии.
+     *
+     * @param session сессия интерпретатора
+     * @return код возврата последней выполненной команды
+     * @see #run(Session, InputStream)
+     */
+    public int run(Session session) {
+        return run(session, session.getConsole().getInputStream());
+    }
+
+    /**
+     * Выполняет команды, пока не закончится ввод или не будет выполнена команда exit.
+     * Пустые строки и строки, начинающиеся с {@code #}, пропускаются. Pipeline, перед которым стоит
+     * {@code time}, выполняется {@link TimingCommandExecutor}-ом; {@code time} без pipeline-а печатает
+     * нулевую статистику и возвращает 0. Сообщения об ошибках
+     * выводятся в поток ошибок консоли, а код возврата такой строки равен 1.
+     *
+     * @param session  сессия интерпретатора
+     * @param commands поток, из которого читаются команды
+     * @return код возврата последней выполненной команды
+     */
+    public int run(Session session, InputStream commands) {
+        int exitCode = 0;
+        String currentInput;
+        var scanner = new Scanner(commands);
+        while (scanner.hasNext()) {
+            currentInput = scanner.nextLine();
+            if (isBlankOrComment(currentInput))
+                continue;
+            try {
+                exitCode = execute(commandLineParser.parse(currentInput, session.getContext()), session);
+            } catch (ParsingException | PipelineBuildingException | CommandExecutionException e) {
+                printMessage(session, e.getMessage());
+                exitCode = FAILURE_EXIT_CODE;
+            } catch (SignalExitException e) {
+                break;
+            }
+        }
+        return exitCode;
+    }
+
+    private int execute(List<Token> tokens, Session session) {
+        if (tokens.isEmpty() || tokens.get(0).getType() != Token.Type.Command
+            || !tokens.get(0).getContent().equals(CommandLineParser.TIME_KEYWORD))
+            return commandExecutor.execute(CommandsPipelineBuilder.buildPipe(tokens, session), session);
+
+        List<Token> timedTokens = tokens.subList(1, tokens.size());
+        List<Command> pipeline = timedTokens.isEmpty()
+            ? List.of()
+            : CommandsPipelineBuilder.buildPipe(timedTokens, session);
+        return timingCommandExecutor.execute(pipeline, session);
+    }
+
+    private static boolean isBlankOrComment(String line) {
+        String trimmed = line.trim();
+        return trimmed.isEmpty() || trimmed.charAt(0) == '#';
+    }
+
+    private static void printMessage(Session session, String message) {
+        try {
+            OutputStream errorStream = session.getConsole().getErrorStream();
+            errorStream.write((message + "\n").getBytes());
+            errorStream.flush();
+        } catch (IOException ignored) {
+            // клиент сессии отключился: сессия завершится при чтении следующей команды
+        }
+    }
+}
@@ -2,11 +2,13 @@ package ru.itmo.se.cli.command;
 
 import ru.itmo.se.cli.command.execution.CommandExecutionException;
 import ru.itmo.se.cli.environment.Console;
-import ru.itmo.se.cli.environment.Descriptor;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.Scanner;
 
@@ -16,8 +18,11 @@ import java.util.Scanner;
  * @author Sergey Sokolvyak
  */
 public final class CatCommand extends Command {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private final List<String> filenames;
     private final boolean isInteractiveMode;
+    private final Console console;
 
     /**
      * Конструктор команды.
@@ -26,11 +31,23 @@ public final class CatCommand extends Command {
      * @param isInteractiveMode флаг запуска команды в интерактивном режиме
      */
     public CatCommand(List<String> filenames, boolean isInteractiveMode) {
+        this(filenames, isInteractiveMode, Console.system());
+    }
+
+    /**
+     * Конструктор команды.
+     *
+     * @param filenames         список файлов, из которых команда читает содержимое
+     * @param isInteractiveMode флаг запуска команды в интерактивном режиме
+     * @param console           консоль сессии, из которой команда читает ввод пользователя
+     */
+    public CatCommand(List<String> filenames, boolean isInteractiveMode, Console console) {
         if (filenames.isEmpty()) {
             filenames.add("-");
         }
         this.filenames = filenames;
         this.isInteractiveMode = isInteractiveMode;
+        this.console = console;
     }
 
     /**
@@ -40,31 +57,61 @@ public final class CatCommand extends Command {
     public int execute() {
         for (String filename : filenames) {
             if (!filename.contentEquals("-")) {
-                output.writeToDestination(readFromFile(filename));
+                copyFromFile(filename);
                 continue;
             }
 
             if (isInteractiveMode) {
-                var scanner = new Scanner(System.in);
-                while (scanner.hasNext()) {
-                    output.writeToDestination(scanner.nextLine());
-                    if (output.getType() == Descriptor.DescriptorType.Console)
-                        Console.getInstance().flush();
-                }
+                var scanner = new Scanner(console.getInputStream());
+                while (scanner.hasNext())
+                    writeToOutput(scanner.nextLine() + "\n");
             } else {
-                output.writeToDestination(input.readFromSource());
+                copyFromInput();
             }
         }
 
         return 0;
     }
 
-    private String readFromFile(String filename) {
-        try {
-            return Files.readString(Path.of(filename));
+    private void copyFromFile(String filename) {
+        try (var fileChannel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            output.getOutputStream().flush();
+            WritableByteChannel destination = output.getOutputChannel();
+            long position = 0;
+            long transferred;
+            while ((transferred = fileChannel.transferTo(position, Long.MAX_VALUE, destination)) > 0)
+                position += transferred;
+            if (position == 0)
+                copyByBuffer(fileChannel, destination);
         } catch (IOException e) {
             throw new CommandExecutionException(
                 String.format("Cat command error: cannot read file %s", filename), e);
         }
     }
+
+    /**
+     * Копирует содержимое файлов, размер которых неизвестен заранее (например, из /proc или именованных каналов),
+     * для которых {@link FileChannel#transferTo} ничего не передает.
+     *
+     * @param source      канал файла
+     * @param destination канал, в который копируется содержимое
+     * @throws IOException если файл не удалось прочитать или данные не удалось записать
+     */
+    private static void copyByBuffer(FileChannel source, WritableByteChannel destination) throws IOException {
+        var buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        while (source.read(buffer) != -1) {
+            buffer.flip();
+            while (buffer.hasRemaining())
+                destination.write(buffer);
+            buffer.clear();
+        }
+    }
+
+    private void copyFromInput() {
+        try {
+            input.getInputStream().transferTo(output.getOutputStream());
+        } catch (IOException e) {
+            throw new CommandExecutionException("Cat command error: cannot read input", e);
+        }
+    }
 }
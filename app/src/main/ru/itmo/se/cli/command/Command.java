@@ -1,8 +1,13 @@
 package ru.itmo.se.cli.command;
 
+import ru.itmo.se.cli.command.execution.CommandExecutionException;
+import ru.itmo.se.cli.environment.Console;
 import ru.itmo.se.cli.environment.ConsoleDescriptor;
 import ru.itmo.se.cli.environment.Descriptor;
 
+import java.io.IOException;
+import java.util.Locale;
+
 
 /**
  * Абстрактный класс, представляющий команду shell-a.
@@ -10,12 +15,15 @@ import ru.itmo.se.cli.environment.Descriptor;
  * @author Sergey Sokolvyak
  */
 public abstract class Command {
+    private static final String CLASS_NAME_SUFFIX = "Command";
+
     protected Descriptor input;
     protected Descriptor output;
+    private int argumentCount;
 
     protected Command() {
-        this.input = new ConsoleDescriptor();
-        this.output = new ConsoleDescriptor();
+        this.input = new ConsoleDescriptor(Console.system());
+        this.output = new ConsoleDescriptor(Console.system());
     }
 
     /**
@@ -24,4 +32,66 @@ public abstract class Command {
      * @return код возрата
      */
     public abstract int execute();
+
+    /**
+     * Возвращает имя команды, под которым она выводится в статистике и событиях выполнения.
+     * По умолчанию имя получается из имени класса: {@code GrepCommand} — {@code grep}.
+     *
+     * @return имя команды
+     */
+    public String getName() {
+        String className = getClass().getSimpleName();
+        if (className.endsWith(CLASS_NAME_SUFFIX) && className.length() > CLASS_NAME_SUFFIX.length())
+            className = className.substring(0, className.length() - CLASS_NAME_SUFFIX.length());
+        return className.isEmpty() ? "command" : className.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Возвращает число аргументов, с которыми была вызвана команда.
+     *
+     * @return число аргументов команды
+     */
+    public int getArgumentCount() {
+        return argumentCount;
+    }
+
+    /**
+     * Устанавливает число аргументов, с которыми была вызвана команда.
+     *
+     * @param argumentCount число аргументов команды
+     */
+    public void setArgumentCount(int argumentCount) {
+        this.argumentCount = argumentCount;
+    }
+
+    /**
+     * Устанавливает дескриптор, из которого команда читает входные данные.
+     *
+     * @param input дескриптор ввода
+     */
+    public void setInput(Descriptor input) {
+        this.input = input;
+    }
+
+    /**
+     * Устанавливает дескриптор, в который команда записывает результат.
+     *
+     * @param output дескриптор вывода
+     */
+    public void setOutput(Descriptor output) {
+        this.output = output;
+    }
+
+    /**
+     * Записывает строку в поток вывода команды.
+     *
+     * @param content строка для записи
+     */
+    protected void writeToOutput(String content) {
+        try {
+            output.getOutputStream().write(content.getBytes());
+        } catch (IOException e) {
+            throw new CommandExecutionException("Command error: cannot write output", e);
+        }
+    }
 }
@@ -24,7 +24,7 @@ public final class EchoCommand extends Command {
      */
     @Override
     public int execute() {
-        output.writeToDestination(String.join(" ", arguments));
+        writeToOutput(String.join(" ", arguments) + "\n");
         return 0;
     }
 }
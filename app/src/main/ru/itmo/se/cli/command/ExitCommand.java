@@ -10,14 +10,17 @@ import ru.itmo.se.cli.environment.Context;
  */
 public class ExitCommand extends Command {
     private final boolean shouldInterrupt;
+    private final Context context;
 
     /**
      * Конструктор команды.
      *
      * @param shouldInterrupt флаг запуска
+     * @param context         контекст сессии, который очищается при выходе
      */
-    public ExitCommand(boolean shouldInterrupt) {
+    public ExitCommand(boolean shouldInterrupt, Context context) {
         this.shouldInterrupt = shouldInterrupt;
+        this.context = context;
     }
 
     /**
@@ -25,9 +28,8 @@ public class ExitCommand extends Command {
      */
     @Override
     public int execute() {
-        output.writeToDestination("");
         if (shouldInterrupt) {
-            Context.getInstance().reset();
+            context.reset();
             throw new SignalExitException("Signal to exit the interpreter");
         }
         return 0;
@@ -1,26 +1,79 @@
 package ru.itmo.se.cli.command;
 
-import com.google.common.base.Strings;
 import ru.itmo.se.cli.command.execution.CommandExecutionException;
+import ru.itmo.se.cli.command.execution.ThreadFactories;
+import ru.itmo.se.cli.environment.Console;
+import ru.itmo.se.cli.event.Events;
+import ru.itmo.se.cli.event.ProcessStartEvent;
+import ru.itmo.se.cli.event.ProcessWaitEvent;
+import ru.itmo.se.cli.trace.Span;
+import ru.itmo.se.cli.trace.Tracer;
 
 import java.io.*;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
+import java.util.concurrent.ThreadFactory;
+import java.util.stream.Collectors;
 
 /**
  * Класс внешней команды.
+ * Ввод, вывод и поток ошибок процесса перекачиваются одновременно буферами фиксированного размера,
+ * поэтому процесс не блокируется на заполненном канале, а его вывод передается дальше по мере появления.
+ * Поток ошибок процесса выводится в поток ошибок консоли сессии.
+ * Несколько внешних команд подряд объединяются в одну: их процессы соединяются каналами
+ * операционной системы, и данные между ними не проходят через JVM.
+ * О запуске процессов и об ожидании их завершения записываются события JFR
+ * {@link ProcessStartEvent} и {@link ProcessWaitEvent}, а при включенной трассировке — интервалы
+ * {@code spawn} и {@code wait}.
  *
  * @author Sergey Sokolvyak on 27.02.2021
  */
 public class ExternalCommand extends Command {
-    private final List<String> arguments;
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final int NATIVE_PIPELINE_FEATURE = 21;
+    private static final ThreadFactory PUMP_THREADS = ThreadFactories.configured("process-pump-");
+    private static final String TRACE_CATEGORY = "process";
+
+    private final List<List<String>> processesArguments;
+    private final Console console;
 
     /**
      * Конструктор команды.
      * @param arguments список, состоящий из имени команды и аргументов
+     * @param console   консоль сессии, в поток ошибок которой выводится поток ошибок процесса
+     */
+    public ExternalCommand(List<String> arguments, Console console) {
+        this.processesArguments = List.of(arguments);
+        this.console = console;
+    }
+
+    private ExternalCommand(ExternalCommand previous, ExternalCommand next) {
+        List<List<String>> arguments = new ArrayList<>(previous.processesArguments);
+        arguments.addAll(next.processesArguments);
+        this.processesArguments = arguments;
+        this.console = previous.console;
+        setArgumentCount(previous.getArgumentCount() + next.getArgumentCount());
+    }
+
+    /**
+     * Проверяет, можно ли соединять процессы каналами операционной системы.
+     * До Java 21 {@link ProcessBuilder#startPipeline} оставляет в JVM открытые концы каналов между процессами:
+     * дескрипторы утекают, а процесс, читатель которого завершился, не получает SIGPIPE и зависает.
+     *
+     * @return true, если текущая JVM корректно соединяет процессы каналами
+     */
+    public static boolean isNativePipelineSupported() {
+        return Runtime.version().feature() >= NATIVE_PIPELINE_FEATURE;
+    }
+
+    /**
+     * Возвращает команду, передающую вывод этой команды на ввод следующей через канал операционной системы.
+     *
+     * @param next следующая внешняя команда pipeline-а
+     * @return объединенная внешняя команда
      */
-    public ExternalCommand(List<String> arguments) {
-        this.arguments = arguments;
+    public ExternalCommand pipeTo(ExternalCommand next) {
+        return new ExternalCommand(this, next);
     }
 
     /**
@@ -28,29 +81,107 @@ public class ExternalCommand extends Command {
      */
     @Override
     public int execute() {
+        ProcessStartEvent startEvent = null;
+        if (Events.isRecording()) {
+            startEvent = new ProcessStartEvent();
+            startEvent.begin();
+        }
+        List<Process> processes;
+        Span spawnSpan = Tracer.span(TRACE_CATEGORY, "spawn").setArgument("command", getName());
         try {
-            var process = new ProcessBuilder(arguments).start();
-            OutputStream stdin = process.getOutputStream();
-            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(stdin))) {
-                writer.write(input.readFromSource());
-                writer.flush();
-            }
-            String errorMessage = readOutput(process.getErrorStream());
-            if (Strings.isNullOrEmpty(errorMessage)) {
-                String result = readOutput(process.getInputStream());
-                output.writeToDestination(result);
-            } else {
-                output.writeToDestination(errorMessage);
+            processes = ProcessBuilder.startPipeline(processesArguments.stream()
+                .map(ProcessBuilder::new)
+                .collect(Collectors.toList()));
+        } catch (IOException e) {
+            throw new CommandExecutionException(String.format("%s command error", getName()), e);
+        } finally {
+            spawnSpan.close();
+        }
+        if (startEvent != null && startEvent.shouldCommit()) {
+            startEvent.commandName = getName();
+            startEvent.argumentCount = getArgumentCount();
+            startEvent.processCount = processes.size();
+            startEvent.commit();
+        }
+
+        ProcessWaitEvent waitEvent = null;
+        if (Events.isRecording()) {
+            waitEvent = new ProcessWaitEvent();
+            waitEvent.begin();
+        }
+        Process first = processes.get(0);
+        Process last = processes.get(processes.size() - 1);
+        startPump(() -> pumpStdin(first));
+        List<Thread> stderrPumps = processes.stream()
+            .map(process -> startPump(() -> pumpStderr(process)))
+            .collect(Collectors.toList());
+        try (Span span = Tracer.span(TRACE_CATEGORY, "wait").setArgument("command", getName());
+             InputStream stdout = last.getInputStream()) {
+            long bytesWritten = copy(stdout, output.getOutputStream());
+            for (Thread stderrPump : stderrPumps)
+                stderrPump.join();
+            for (Process process : processes)
+                process.waitFor();
+            span.setArgument("bytesWritten", bytesWritten).setArgument("exitCode", last.exitValue());
+            if (waitEvent != null && waitEvent.shouldCommit()) {
+                waitEvent.commandName = getName();
+                waitEvent.argumentCount = getArgumentCount();
+                waitEvent.bytesWritten = bytesWritten;
+                waitEvent.exitCode = last.exitValue();
+                waitEvent.commit();
             }
-            return process.waitFor();
+            return last.exitValue();
         } catch (IOException | InterruptedException e) {
-            throw new CommandExecutionException(
-                String.format("%s command error", arguments.get(0)), e);
+            processes.forEach(Process::destroy);
+            if (e instanceof InterruptedException)
+                Thread.currentThread().interrupt();
+            throw new CommandExecutionException(String.format("%s command error", getName()), e);
         }
     }
 
-    private String readOutput(InputStream inputStream) {
-        var scanner = new Scanner(inputStream).useDelimiter("\\A");
-        return scanner.hasNext() ? scanner.next() : "";
+    /**
+     * Возвращает имена исполняемых файлов процессов команды без каталогов, разделенные {@code |}.
+     *
+     * @return имя команды
+     */
+    @Override
+    public String getName() {
+        return processesArguments.stream()
+            .map(arguments -> arguments.get(0).substring(arguments.get(0).lastIndexOf('/') + 1))
+            .collect(Collectors.joining(" | "));
+    }
+
+    private void pumpStdin(Process process) {
+        try (OutputStream stdin = process.getOutputStream()) {
+            copy(input.getInputStream(), stdin);
+        } catch (IOException ignored) {
+            // процесс перестал читать ввод или предыдущая команда завершилась с ошибкой
+        }
+    }
+
+    private void pumpStderr(Process process) {
+        try (InputStream stderr = process.getErrorStream()) {
+            copy(stderr, console.getErrorStream());
+        } catch (IOException ignored) {
+            // поток ошибок процесса закрыт
+        }
+    }
+
+    private static Thread startPump(Runnable pump) {
+        Thread thread = PUMP_THREADS.newThread(pump);
+        thread.start();
+        return thread;
+    }
+
+    private static long copy(InputStream source, OutputStream destination) throws IOException {
+        var buffer = new byte[BUFFER_SIZE];
+        long total = 0;
+        int read;
+        while ((read = source.read(buffer)) != -1) {
+            destination.write(buffer, 0, read);
+            destination.flush();
+            total += read;
+        }
+        return total;
     }
 }
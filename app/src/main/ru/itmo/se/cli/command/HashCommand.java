@@ -0,0 +1,62 @@
+package ru.itmo.se.cli.command;
+
+import ru.itmo.se.cli.command.execution.CommandExecutionException;
+import ru.itmo.se.cli.environment.CommandHashTable;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Класс, представляющий команду shell-a hash.
+ * Без аргументов выводит запомненные пути к внешним командам и число их вызовов,
+ * с ключом {@code -r} очищает таблицу, а переданные имена команд ищет в {@code PATH} и запоминает.
+ *
+ * @author Sergey Sokolvyak
+ */
+public final class HashCommand extends Command {
+    private final List<String> names;
+    private final boolean reset;
+    private final CommandHashTable table;
+    private final String searchPath;
+
+    /**
+     * Конструктор команды.
+     *
+     * @param names      имена команд, которые нужно найти и запомнить
+     * @param reset      нужно ли очистить таблицу
+     * @param table      таблица путей к командам сессии
+     * @param searchPath список каталогов для поиска команд
+     */
+    public HashCommand(List<String> names, boolean reset, CommandHashTable table, String searchPath) {
+        this.names = names;
+        this.reset = reset;
+        this.table = table;
+        this.searchPath = searchPath;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int execute() {
+        if (reset)
+            table.clear();
+        for (String name : names) {
+            if (!table.remember(name, searchPath))
+                throw new CommandExecutionException(String.format("Hash command error: %s not found", name));
+        }
+        if (reset || !names.isEmpty())
+            return 0;
+
+        Map<Path, Long> entries = table.getEntries(searchPath);
+        if (entries.isEmpty()) {
+            writeToOutput("hash: hash table empty\n");
+            return 0;
+        }
+        var result = new StringBuilder("hits\tcommand\n");
+        entries.forEach((location, hits) -> result.append(String.format("%4d\t%s%n", hits, location)));
+        writeToOutput(result.toString());
+        return 0;
+    }
+}
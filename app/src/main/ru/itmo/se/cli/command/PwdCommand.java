@@ -12,7 +12,7 @@ public class PwdCommand extends Command {
     @Override
     public int execute() {
         String currentDirectory = System.getProperty("user.dir");
-        output.writeToDestination(currentDirectory);
+        writeToOutput(currentDirectory + "\n");
         return 0;
     }
 }
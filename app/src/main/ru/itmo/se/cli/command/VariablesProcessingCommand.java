@@ -12,14 +12,18 @@ import java.util.List;
  */
 public class VariablesProcessingCommand extends Command {
     private final List<AbstractMap.SimpleImmutableEntry<String, String>> sequenceVarDecl;
+    private final Context context;
 
     /**
      * Конструктор класса.
      *
      * @param varNamesAndValues список имен и значений переменных
+     * @param context           контекст сессии, в который записываются переменные
      */
-    public VariablesProcessingCommand(List<AbstractMap.SimpleImmutableEntry<String, String>> varNamesAndValues) {
+    public VariablesProcessingCommand(List<AbstractMap.SimpleImmutableEntry<String, String>> varNamesAndValues,
+                                      Context context) {
         this.sequenceVarDecl = varNamesAndValues;
+        this.context = context;
     }
 
     /**
@@ -27,11 +31,17 @@ public class VariablesProcessingCommand extends Command {
      */
     @Override
     public int execute() {
-        var context = Context.getInstance();
         for (AbstractMap.SimpleImmutableEntry<String, String> varDecl : sequenceVarDecl) {
             context.setOrAddVariable(varDecl.getKey(), varDecl.getValue());
         }
-        output.writeToDestination("");
         return 0;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return "assignment";
+    }
 }
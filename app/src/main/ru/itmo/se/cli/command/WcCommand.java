@@ -1,15 +1,14 @@
 package ru.itmo.se.cli.command;
 
 import ru.itmo.se.cli.command.execution.CommandExecutionException;
+import ru.itmo.se.cli.command.text.WordCountEngine;
+import ru.itmo.se.cli.environment.Console;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.file.Files;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Objects;
 
 /**
  * Класс, представляющий команду shell-a wc.
@@ -19,7 +18,9 @@ import java.util.Objects;
 public final class WcCommand extends Command {
     private final List<String> filenames;
     private final boolean isInteractiveMode;
+    private final Console console;
     private final boolean isTableFormat;
+    private final WordCountEngine wordCountEngine = new WordCountEngine();
 
     /**
      * Конструктор команды.
@@ -28,11 +29,23 @@ public final class WcCommand extends Command {
      * @param isInteractiveMode флаг запуска команды в интерактивном режиме
      */
     public WcCommand(List<String> filenames, boolean isInteractiveMode) {
+        this(filenames, isInteractiveMode, Console.system());
+    }
+
+    /**
+     * Конструктор команды.
+     *
+     * @param filenames         список файлов, из которых команда читает содержимое
+     * @param isInteractiveMode флаг запуска команды в интерактивном режиме
+     * @param console           консоль сессии, из которой команда читает ввод пользователя
+     */
+    public WcCommand(List<String> filenames, boolean isInteractiveMode, Console console) {
         if (filenames.isEmpty()) {
             filenames.add("-");
         }
         this.filenames = filenames;
         this.isInteractiveMode = isInteractiveMode;
+        this.console = console;
         this.isTableFormat = filenames.size() > 1;
     }
 
@@ -49,13 +62,9 @@ public final class WcCommand extends Command {
             if (!filename.contentEquals("-")) {
                 countInCurrentSource = getLinesWordsBytesCountInFile(filename);
             } else {
-                if (isInteractiveMode) {
-                    countInCurrentSource = getLinesWordsBytesCountInUserInput();
-                } else {
-                    currentSourceInfo = input.readFromSource();
-                    countInCurrentSource = new long[]{getCountOfLinesInString(currentSourceInfo),
-                        getCountOfWordsInLine(currentSourceInfo), currentSourceInfo.getBytes().length};
-                }
+                countInCurrentSource = isInteractiveMode
+                    ? getLinesWordsBytesCountInStream(console.getInputStream(), "user input")
+                    : getLinesWordsBytesCountInStream(input.getInputStream(), "input");
             }
             currentSourceInfo = String.format("      %d      %d      %d ",
                 countInCurrentSource[0], countInCurrentSource[1], countInCurrentSource[2]
@@ -65,48 +74,25 @@ public final class WcCommand extends Command {
             infoAboutAllSources.add(currentSourceInfo);
         }
 
-        output.writeToDestination(String.join("\n", infoAboutAllSources));
+        writeToOutput(String.join("\n", infoAboutAllSources) + "\n");
         return 0;
     }
 
     private long[] getLinesWordsBytesCountInFile(String filename) {
-        var path = Path.of(filename);
-        try (var bufferedReader = Files.newBufferedReader(path)) {
-            return getLinesWordsBytesCountFromSource(bufferedReader);
+        try {
+            return wordCountEngine.countInFile(Path.of(filename));
         } catch (IOException e) {
             throw new CommandExecutionException(
                 String.format("Wc command error: cannot read file %s", filename), e);
         }
     }
 
-    private long[] getLinesWordsBytesCountInUserInput() {
-        try (var bufferedReader = new BufferedReader(new InputStreamReader(System.in))) {
-            return getLinesWordsBytesCountFromSource(bufferedReader);
+    private long[] getLinesWordsBytesCountInStream(InputStream source, String sourceDescription) {
+        try {
+            return wordCountEngine.countInStream(source);
         } catch (IOException e) {
             throw new CommandExecutionException(
-                "Wc command error: cannot read user input", e);
+                String.format("Wc command error: cannot read %s", sourceDescription), e);
         }
     }
-
-    private long[] getLinesWordsBytesCountFromSource(BufferedReader reader) throws IOException {
-        long countOfBytes = 0;
-        long countOfLines = 0;
-        long countOfWords = 0;
-        String currentLine;
-        while (Objects.nonNull(currentLine = reader.readLine())) {
-            countOfLines++;
-            countOfWords += getCountOfWordsInLine(currentLine);
-            countOfBytes += currentLine.getBytes().length;
-        }
-
-        return new long[]{countOfLines, countOfWords, countOfBytes};
-    }
-
-    private long getCountOfWordsInLine(String line) {
-        return line.split("\\s+").length;
-    }
-
-    private long getCountOfLinesInString(String str) {
-        return str.split("\\n").length;
-    }
 }
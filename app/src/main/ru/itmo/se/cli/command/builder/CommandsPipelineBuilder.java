@@ -1,9 +1,21 @@
 package ru.itmo.se.cli.command.builder;
 
 import ru.itmo.se.cli.command.*;
+import ru.itmo.se.cli.command.builtin.BuiltinProvider;
+import ru.itmo.se.cli.command.builtin.BuiltinRegistry;
+import ru.itmo.se.cli.command.text.LineMatcher;
+import ru.itmo.se.cli.command.text.LiteralLineMatcher;
+import ru.itmo.se.cli.command.text.RegexLineMatcher;
+import ru.itmo.se.cli.environment.CommandHashTable;
+import ru.itmo.se.cli.environment.Session;
+import ru.itmo.se.cli.event.BuildEvent;
+import ru.itmo.se.cli.event.Events;
 import ru.itmo.se.cli.parser.Token;
+import ru.itmo.se.cli.trace.Span;
+import ru.itmo.se.cli.trace.Tracer;
 
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
@@ -16,11 +28,38 @@ import java.util.stream.Collectors;
 public class CommandsPipelineBuilder {
     /**
      * Собирает pipeline команд из списка токенов.
+     * Команды, не встроенные в интерпретатор, сначала ищутся среди подключаемых встроенных команд
+     * {@link BuiltinRegistry}, а затем запускаются как внешние.
+     * Если JVM это поддерживает, внешние команды, идущие подряд, объединяются в одну {@link ExternalCommand},
+     * процессы которой соединены каналами операционной системы.
+     * Команды pipeline-а из нескольких команд получают снимки контекста сессии, поэтому изменения
+     * переменных внутри pipeline-а не видны в сессии. О сборке записывается событие JFR {@link BuildEvent}.
      *
-     * @param tokens список токенов, из которых собирается pipeline
+     * @param tokens  список токенов, из которых собирается pipeline
+     * @param session сессия, в которой будет выполняться pipeline
      * @return список команд, представляющий pipeline команд
      */
-    public static List<Command> buildPipe(List<Token> tokens) {
+    public static List<Command> buildPipe(List<Token> tokens, Session session) {
+        BuildEvent event = null;
+        if (Events.isRecording()) {
+            event = new BuildEvent();
+            event.begin();
+        }
+        List<Command> commands;
+        try (Span span = Tracer.span("builder", "build")) {
+            commands = buildCommands(tokens, session);
+            span.setArgument("stages", commands.size());
+        }
+        if (event != null && event.shouldCommit()) {
+            event.commandName = commands.stream().map(Command::getName).collect(Collectors.joining(" | "));
+            event.argumentCount = commands.stream().mapToInt(Command::getArgumentCount).sum();
+            event.stageCount = commands.size();
+            event.commit();
+        }
+        return commands;
+    }
+
+    private static List<Command> buildCommands(List<Token> tokens, Session session) {
         List<Command> commands = new LinkedList<>();
         List<Token> currentCommandWithArgs;
         int startIdxOfCurrentCommand = 0;
@@ -43,18 +82,28 @@ public class CommandsPipelineBuilder {
             isSingleCommand = startIdxOfCurrentCommand == 0 && curPos == tokens.size();
             if (isSequenceOfVariableDeclarations(currentCommandWithArgs)) {
                 if (isSingleCommand)
-                    commands.add(buildVarDeclarations(currentCommandWithArgs));
+                    commands.add(buildVarDeclarations(currentCommandWithArgs, session));
             } else {
-                commands.add(buildCommand(currentCommandWithArgs,
-                    startIdxOfCurrentCommand == 0, isSingleCommand));
+                addCommand(commands, buildCommand(currentCommandWithArgs,
+                    startIdxOfCurrentCommand == 0, isSingleCommand, isSingleCommand ? session : session.fork()));
             }
             startIdxOfCurrentCommand = curPos + 1;
         }
         return commands;
     }
 
+    private static void addCommand(List<Command> commands, Command command) {
+        int lastIdx = commands.size() - 1;
+        if (lastIdx >= 0 && commands.get(lastIdx) instanceof ExternalCommand && command instanceof ExternalCommand
+            && ExternalCommand.isNativePipelineSupported()) {
+            commands.set(lastIdx, ((ExternalCommand) commands.get(lastIdx)).pipeTo((ExternalCommand) command));
+            return;
+        }
+        commands.add(command);
+    }
+
     private static Command buildCommand(List<Token> tokens, boolean isFirstCommandInPipeline,
-                                        boolean isSingleCommand) {
+                                        boolean isSingleCommand, Session session) {
         Token firstToken = tokens.get(0);
         if (firstToken.getType() != Token.Type.Command)
             throw new PipelineBuildingException(String.format(
@@ -68,28 +117,32 @@ public class CommandsPipelineBuilder {
                 command = buildGrepCommand(arguments);
                 break;
             case "cat":
-                command = buildCatCommand(arguments, isFirstCommandInPipeline);
+                command = buildCatCommand(arguments, isFirstCommandInPipeline, session);
                 break;
             case "echo":
                 command = buildEchoCommand(arguments);
                 break;
             case "wc":
-                command = buildWcCommand(arguments, isFirstCommandInPipeline);
+                command = buildWcCommand(arguments, isFirstCommandInPipeline, session);
                 break;
             case "pwd":
                 command = buildPwdCommand();
                 break;
             case "exit":
-                command = buildExitCommand(isSingleCommand);
+                command = buildExitCommand(isSingleCommand, session);
+                break;
+            case "hash":
+                command = buildHashCommand(arguments, session);
                 break;
             default:
-                command = buildExternalCommand(tokens);
+                command = buildPluggableCommand(tokens, session);
         }
 
+        command.setArgumentCount(arguments.size());
         return command;
     }
 
-    private static Command buildVarDeclarations(List<Token> tokens) {
+    private static Command buildVarDeclarations(List<Token> tokens, Session session) {
         List<AbstractMap.SimpleImmutableEntry<String, String>> varDecls = tokens.stream()
             .map(token -> {
                 String[] nameAndValue = token.getContent().split("=", 2);
@@ -97,21 +150,23 @@ public class CommandsPipelineBuilder {
                 var value = nameAndValue.length > 1 ? nameAndValue[1] : "";
                 return new AbstractMap.SimpleImmutableEntry<>(name, value);
             }).collect(Collectors.toList());
-        return new VariablesProcessingCommand(varDecls);
+        var command = new VariablesProcessingCommand(varDecls, session.getContext());
+        command.setArgumentCount(varDecls.size());
+        return command;
     }
 
-    private static Command buildCatCommand(List<Token> arguments, boolean isInteractiveMode) {
+    private static Command buildCatCommand(List<Token> arguments, boolean isInteractiveMode, Session session) {
         List<String> filenames = arguments.stream()
             .map(Token::getContent)
             .collect(Collectors.toList());
-        return new CatCommand(filenames, isInteractiveMode);
+        return new CatCommand(filenames, isInteractiveMode, session.getConsole());
     }
 
-    private static Command buildWcCommand(List<Token> arguments, boolean isInteractiveMode) {
+    private static Command buildWcCommand(List<Token> arguments, boolean isInteractiveMode, Session session) {
         List<String> filenames = arguments.stream()
             .map(Token::getContent)
             .collect(Collectors.toList());
-        return new WcCommand(filenames, isInteractiveMode);
+        return new WcCommand(filenames, isInteractiveMode, session.getConsole());
     }
 
     private static Command buildEchoCommand(List<Token> arguments) {
@@ -128,6 +183,7 @@ public class CommandsPipelineBuilder {
     private static Command buildGrepCommand(List<Token> arguments) {
         boolean ignoreCase = false;
         boolean matchWords = false;
+        boolean fixedStrings = false;
         int countTrailingLines = 0;
 
         ListIterator<Token> iter = arguments.listIterator();
@@ -142,6 +198,10 @@ public class CommandsPipelineBuilder {
                 matchWords = true;
                 continue;
             }
+            if (currArg.getContent().contentEquals("-F")) {
+                fixedStrings = true;
+                continue;
+            }
             if (currArg.getContent().contentEquals("-A")) {
                 if (!iter.hasNext()) {
                     throw new PipelineBuildingException("Grep key -A must has number argument");
@@ -160,35 +220,77 @@ public class CommandsPipelineBuilder {
         if (!iter.hasNext())
             throw new PipelineBuildingException("Grep must has regex argument");
 
-        Pattern pattern;
+        String regex = iter.next().getContent();
+        Supplier<LineMatcher> matcherFactory;
+        if (!regex.isEmpty() && (fixedStrings || LiteralLineMatcher.isLiteral(regex))) {
+            var literalMatcher = new LiteralLineMatcher(regex, ignoreCase, matchWords);
+            matcherFactory = () -> literalMatcher;
+        } else {
+            Pattern pattern = compileGrepPattern(fixedStrings ? Pattern.quote(regex) : regex,
+                ignoreCase, matchWords);
+            matcherFactory = () -> new RegexLineMatcher(pattern);
+        }
+
+        List<String> filenames = arguments.subList(iter.nextIndex(), arguments.size())
+            .stream()
+            .map(Token::getContent)
+            .collect(Collectors.toList());
+
+        return new GrepCommand(countTrailingLines, matcherFactory, filenames);
+    }
+
+    private static Pattern compileGrepPattern(String regex, boolean ignoreCase, boolean matchWords) {
         try {
-            String regex = iter.next().getContent();
             if (matchWords)
                 regex = "\\b" + regex + "\\b";
-            pattern = ignoreCase
+            return ignoreCase
                 ? Pattern.compile(regex, Pattern.CASE_INSENSITIVE)
                 : Pattern.compile(regex);
         } catch (PatternSyntaxException e) {
             throw new PipelineBuildingException("Syntax error in pattern argument of grep", e);
         }
+    }
 
-        List<String> filenames = arguments.subList(iter.nextIndex(), arguments.size())
-            .stream()
+    private static Command buildPluggableCommand(List<Token> tokens, Session session) {
+        String name = tokens.get(0).getContent();
+        Optional<BuiltinProvider> provider = BuiltinRegistry.getDefault().find(name);
+        if (provider.isEmpty())
+            return buildExternalCommand(tokens, session);
+
+        List<String> arguments = tokens.subList(1, tokens.size()).stream()
             .map(Token::getContent)
             .collect(Collectors.toList());
+        return provider.get().create(name, arguments, session);
+    }
 
-        return new GrepCommand(countTrailingLines, pattern, filenames);
+    private static Command buildHashCommand(List<Token> arguments, Session session) {
+        boolean reset = false;
+        List<String> names = new ArrayList<>();
+        for (Token argument : arguments) {
+            if (argument.getContent().contentEquals("-r"))
+                reset = true;
+            else if (argument.getContent().startsWith("-"))
+                throw new PipelineBuildingException("Hash supports only -r key");
+            else
+                names.add(argument.getContent());
+        }
+        return new HashCommand(names, reset, session.getCommandHashTable(),
+            CommandHashTable.getSearchPath(session.getContext()));
     }
 
-    private static Command buildExternalCommand(List<Token> arguments) {
+    private static Command buildExternalCommand(List<Token> arguments, Session session) {
         List<String> filenames = arguments.stream()
             .map(Token::getContent)
-            .collect(Collectors.toList());
-        return new ExternalCommand(filenames);
+            .collect(Collectors.toCollection(ArrayList::new));
+        String searchPath = CommandHashTable.getSearchPath(session.getContext());
+        session.getCommandHashTable()
+            .resolve(filenames.get(0), searchPath)
+            .ifPresent(location -> filenames.set(0, location.toString()));
+        return new ExternalCommand(filenames, session.getConsole());
     }
 
-    private static Command buildExitCommand(boolean isSingleCommand) {
-        return new ExitCommand(isSingleCommand);
+    private static Command buildExitCommand(boolean isSingleCommand, Session session) {
+        return new ExitCommand(isSingleCommand, session.getContext());
     }
 
     private static boolean isSequenceOfVariableDeclarations(List<Token> tokens) {
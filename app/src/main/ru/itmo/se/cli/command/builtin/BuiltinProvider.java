@@ -0,0 +1,36 @@
+package ru.itmo.se.cli.command.builtin;
+
+import ru.itmo.se.cli.command.Command;
+import ru.itmo.se.cli.environment.Session;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Поставщик встроенных команд, подключаемый через {@link java.util.ServiceLoader}.
+ * Реализации регистрируются в файле {@code META-INF/services/ru.itmo.se.cli.command.builtin.BuiltinProvider}
+ * своего JAR-а и выполняются в процессе интерпретатора, без запуска внешнего процесса.
+ * Поставщик должен иметь открытый конструктор без параметров и не должен загружать классы команд
+ * до вызова {@link #create}.
+ *
+ * @author Sergey Sokolvyak
+ */
+public interface BuiltinProvider {
+    /**
+     * Возвращает имена команд, которые создает поставщик.
+     *
+     * @return имена команд
+     */
+    Set<String> getNames();
+
+    /**
+     * Создает команду.
+     *
+     * @param name      имя команды, одно из {@link #getNames()}
+     * @param arguments аргументы команды
+     * @param session   сессия, в которой будет выполняться команда
+     * @return команда
+     * @throws ru.itmo.se.cli.command.builder.PipelineBuildingException если аргументы некорректны
+     */
+    Command create(String name, List<String> arguments, Session session);
+}
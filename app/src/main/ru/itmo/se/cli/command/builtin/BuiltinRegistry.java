@@ -0,0 +1,136 @@
+package ru.itmo.se.cli.command.builtin;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Реестр встроенных команд, поставляемых через {@link BuiltinProvider}.
+ * Поставщики ищутся и создаются только при первом обращении к реестру, а классы команд загружаются
+ * только при создании команды, поэтому подключенные JAR-ы не замедляют запуск интерпретатора.
+ * Кроме classpath поставщики ищутся в JAR-ах каталога, заданного свойством {@value #BUILTINS_PATH_PROPERTY}.
+ *
+ * @author Sergey Sokolvyak
+ */
+public final class BuiltinRegistry {
+    /**
+     * Имя системного свойства, задающего каталог с JAR-ами встроенных команд.
+     */
+    public static final String BUILTINS_PATH_PROPERTY = "cli.builtins.path";
+
+    private final ClassLoader classLoader;
+    private volatile Map<String, BuiltinProvider> providers;
+
+    private static class RegistryHolder {
+        public static final BuiltinRegistry HOLDER_INSTANCE = new BuiltinRegistry(defaultClassLoader());
+    }
+
+    /**
+     * Конструктор реестра.
+     *
+     * @param classLoader загрузчик, в котором ищутся поставщики
+     */
+    public BuiltinRegistry(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Возвращает реестр, который ищет поставщиков в classpath интерпретатора
+     * и в каталоге {@value #BUILTINS_PATH_PROPERTY}.
+     *
+     * @return реестр по умолчанию
+     */
+    public static BuiltinRegistry getDefault() {
+        return RegistryHolder.HOLDER_INSTANCE;
+    }
+
+    /**
+     * Ищет поставщика команды по имени. Если команду предоставляют несколько поставщиков,
+     * используется первый найденный.
+     *
+     * @param name имя команды
+     * @return поставщик команды, если он найден
+     */
+    public Optional<BuiltinProvider> find(String name) {
+        return Optional.ofNullable(getProviders().get(name));
+    }
+
+    private Map<String, BuiltinProvider> getProviders() {
+        Map<String, BuiltinProvider> result = providers;
+        if (result == null) {
+            synchronized (this) {
+                result = providers;
+                if (result == null) {
+                    result = loadProviders();
+                    providers = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Map<String, BuiltinProvider> loadProviders() {
+        Map<String, BuiltinProvider> byName = new HashMap<>();
+        Iterator<BuiltinProvider> iterator = ServiceLoader.load(BuiltinProvider.class, classLoader).iterator();
+        while (true) {
+            try {
+                if (!iterator.hasNext())
+                    break;
+                BuiltinProvider provider = iterator.next();
+                for (String name : namesOf(provider))
+                    byName.putIfAbsent(name, provider);
+            } catch (ServiceConfigurationError e) {
+                System.err.println("Cannot load builtin provider: " + e.getMessage());
+            }
+        }
+        return Collections.unmodifiableMap(byName);
+    }
+
+    private static Set<String> namesOf(BuiltinProvider provider) {
+        try {
+            return Set.copyOf(provider.getNames());
+        } catch (RuntimeException e) {
+            System.err.println("Cannot load builtin provider " + provider.getClass().getName() + ": " + e);
+            return Set.of();
+        }
+    }
+
+    private static ClassLoader defaultClassLoader() {
+        ClassLoader parent = BuiltinRegistry.class.getClassLoader();
+        String builtinsPath = System.getProperty(BUILTINS_PATH_PROPERTY);
+        if (builtinsPath == null || builtinsPath.isBlank())
+            return parent;
+
+        List<Path> jars;
+        try (Stream<Path> files = Files.list(Path.of(builtinsPath))) {
+            jars = files.filter(file -> file.toString().endsWith(".jar")).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            System.err.println("Cannot read builtins directory " + builtinsPath);
+            return parent;
+        }
+
+        var urls = new URL[jars.size()];
+        for (int i = 0; i < urls.length; i++) {
+            try {
+                urls[i] = jars.get(i).toUri().toURL();
+            } catch (MalformedURLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return new URLClassLoader(urls, parent);
+    }
+}
@@ -1,6 +1,7 @@
 package ru.itmo.se.cli.command.execution;
 
 import ru.itmo.se.cli.command.Command;
+import ru.itmo.se.cli.environment.Session;
 
 import java.util.List;
 
@@ -14,7 +15,8 @@ public interface CommandExecutor {
      * Иницирует выполнение pipeline-а.
      *
      * @param pipeline pipeline команд
-     * @return код возврата
+     * @param session  сессия, в консоль которой выводится результат pipeline-а
+     * @return код возврата последней команды pipeline-а
      */
-    int execute(List<Command> pipeline);
+    int execute(List<Command> pipeline, Session session);
 }
@@ -0,0 +1,192 @@
+package ru.itmo.se.cli.command.execution;
+
+import ru.itmo.se.cli.command.Command;
+import ru.itmo.se.cli.environment.BrokenPipeException;
+import ru.itmo.se.cli.environment.ConsoleDescriptor;
+import ru.itmo.se.cli.environment.Descriptor;
+import ru.itmo.se.cli.environment.PipeDescriptor;
+import ru.itmo.se.cli.environment.Session;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Класс, выполняющий все команды pipeline-а одновременно.
+ * Каждая команда, кроме последней, запускается в отдельном потоке; соседние команды
+ * соединяются каналами ограниченного размера, поэтому вывод появляется сразу,
+ * а объем занятой памяти не зависит от объема данных. Размер канала по умолчанию
+ * задается свойством {@value #PIPE_CAPACITY_PROPERTY}.
+ *
+ * @author Sergey Sokolvyak
+ */
+public class ConcurrentCommandExecutor implements CommandExecutor {
+    /**
+     * Системное свойство, задающее размер буфера канала между командами в байтах.
+     */
+    public static final String PIPE_CAPACITY_PROPERTY = "cli.pipe.capacity";
+
+    private static final int DEFAULT_PIPE_CAPACITY = 64 * 1024;
+
+    private final ThreadFactory threadFactory;
+    private final int pipeCapacity;
+
+    /**
+     * Конструктор исполнителя, запускающего команды в daemon-потоках платформы.
+     */
+    public ConcurrentCommandExecutor() {
+        this(ThreadFactories.platform("pipeline-stage-"));
+    }
+
+    /**
+     * Конструктор исполнителя, запускающего команды в потоках переданной фабрики.
+     *
+     * @param threadFactory фабрика потоков, в которых выполняются команды
+     */
+    public ConcurrentCommandExecutor(ThreadFactory threadFactory) {
+        this(threadFactory, configuredPipeCapacity());
+    }
+
+    /**
+     * Конструктор исполнителя.
+     *
+     * @param threadFactory фабрика потоков, в которых выполняются команды
+     * @param pipeCapacity  размер буфера канала между командами в байтах
+     */
+    public ConcurrentCommandExecutor(ThreadFactory threadFactory, int pipeCapacity) {
+        this.threadFactory = threadFactory;
+        this.pipeCapacity = pipeCapacity;
+    }
+
+    /**
+     * Возвращает размер буфера канала, заданный свойством {@value #PIPE_CAPACITY_PROPERTY},
+     * или размер по умолчанию, если свойство не задано или не является положительным числом.
+     *
+     * @return размер буфера канала в байтах
+     */
+    public static int configuredPipeCapacity() {
+        String requested = System.getProperty(PIPE_CAPACITY_PROPERTY, "").trim();
+        try {
+            int capacity = Integer.parseInt(requested);
+            return capacity > 0 ? capacity : DEFAULT_PIPE_CAPACITY;
+        } catch (NumberFormatException e) {
+            return DEFAULT_PIPE_CAPACITY;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int execute(List<Command> pipeline, Session session) {
+        if (pipeline.isEmpty())
+            return 0;
+
+        List<Stage> stages = new ArrayList<>(pipeline.size());
+        Descriptor previousOutput = new ConsoleDescriptor(session.getConsole());
+        Iterator<Command> iterator = pipeline.iterator();
+        while (iterator.hasNext()) {
+            Command command = iterator.next();
+            Descriptor currentOutput = iterator.hasNext()
+                ? new PipeDescriptor(pipeCapacity)
+                : new ConsoleDescriptor(session.getConsole());
+            command.setInput(previousOutput);
+            command.setOutput(currentOutput);
+            stages.add(new Stage(command, previousOutput, currentOutput));
+            previousOutput = currentOutput;
+        }
+
+        List<Thread> threads = new ArrayList<>(stages.size() - 1);
+        for (Stage stage : stages.subList(0, stages.size() - 1)) {
+            Thread thread = threadFactory.newThread(stage);
+            threads.add(thread);
+            thread.start();
+        }
+        Stage lastStage = stages.get(stages.size() - 1);
+        lastStage.run();
+        joinAll(threads);
+
+        session.getConsole().flush();
+        rethrowFirstFailure(stages);
+        return lastStage.exitCode;
+    }
+
+    private static void joinAll(List<Thread> threads) {
+        boolean isInterrupted = false;
+        for (Thread thread : threads) {
+            while (true) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    isInterrupted = true;
+                    threads.forEach(Thread::interrupt);
+                }
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+            throw new CommandExecutionException("Pipeline execution was interrupted");
+        }
+    }
+
+    private static void rethrowFirstFailure(List<Stage> stages) {
+        for (Stage stage : stages) {
+            Throwable failure = stage.failure;
+            if (failure == null || stage.isStoppedByReader())
+                continue;
+            if (failure instanceof RuntimeException)
+                throw (RuntimeException) failure;
+            if (failure instanceof Error)
+                throw (Error) failure;
+            throw new CommandExecutionException("Pipeline execution failed", failure);
+        }
+    }
+
+    private static final class Stage implements Runnable {
+        private final Command command;
+        private final Descriptor input;
+        private final Descriptor output;
+        private volatile Throwable failure;
+        private volatile int exitCode;
+
+        private Stage(Command command, Descriptor input, Descriptor output) {
+            this.command = command;
+            this.input = input;
+            this.output = output;
+        }
+
+        @Override
+        public void run() {
+            try {
+                exitCode = command.execute();
+            } catch (Throwable e) {
+                failure = e;
+            } finally {
+                if (output.getType() == Descriptor.DescriptorType.Pipe)
+                    closeQuietly(output.getOutputStream());
+                if (input.getType() == Descriptor.DescriptorType.Pipe)
+                    closeQuietly(input.getInputStream());
+            }
+        }
+
+        private boolean isStoppedByReader() {
+            for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+                if (cause instanceof BrokenPipeException)
+                    return true;
+            }
+            return false;
+        }
+
+        private static void closeQuietly(Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+                // канал закрывается только для того, чтобы разбудить соседнюю команду
+            }
+        }
+    }
+}
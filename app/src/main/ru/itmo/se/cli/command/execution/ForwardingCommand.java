@@ -0,0 +1,75 @@
+package ru.itmo.se.cli.command.execution;
+
+import ru.itmo.se.cli.command.Command;
+import ru.itmo.se.cli.environment.CountingDescriptor;
+import ru.itmo.se.cli.environment.Descriptor;
+
+/**
+ * Команда, передающая выполнение другой команде и считающая байты, которые та прочитала и записала.
+ * Используется исполнителями-обертками, которые измеряют или записывают выполнение каждой команды
+ * pipeline-а в потоке, в котором ее запустил оборачиваемый исполнитель. Байты считаются только
+ * для дескрипторов, переданных методами {@link #setInput} и {@link #setOutput}.
+ *
+ * @author Sergey Sokolvyak
+ */
+abstract class ForwardingCommand extends Command {
+    protected final Command command;
+    private CountingDescriptor countingInput;
+    private CountingDescriptor countingOutput;
+
+    ForwardingCommand(Command command) {
+        this.command = command;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setInput(Descriptor input) {
+        countingInput = new CountingDescriptor(input);
+        command.setInput(countingInput);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setOutput(Descriptor output) {
+        countingOutput = new CountingDescriptor(output);
+        command.setOutput(countingOutput);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return command.getName();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getArgumentCount() {
+        return command.getArgumentCount();
+    }
+
+    /**
+     * Возвращает число байт, прочитанных командой из ее ввода.
+     *
+     * @return число прочитанных байт или 0, если ввод команды не был установлен
+     */
+    long getBytesRead() {
+        return countingInput == null ? 0 : countingInput.getBytesRead();
+    }
+
+    /**
+     * Возвращает число байт, записанных командой в ее вывод.
+     *
+     * @return число записанных байт или 0, если вывод команды не был установлен
+     */
+    long getBytesWritten() {
+        return countingOutput == null ? 0 : countingOutput.getBytesWritten();
+    }
+}
@@ -0,0 +1,74 @@
+package ru.itmo.se.cli.command.execution;
+
+import ru.itmo.se.cli.command.Command;
+import ru.itmo.se.cli.environment.Session;
+import ru.itmo.se.cli.event.CommandEvent;
+import ru.itmo.se.cli.event.Events;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Исполнитель, записывающий событие JFR {@link CommandEvent} о выполнении каждой команды pipeline-а,
+ * выполняемого другим исполнителем. Событие записывается в потоке, в котором выполнялась команда,
+ * поэтому в JDK Mission Control его можно сопоставить с событиями GC и ввода-вывода этого потока.
+ * Если JFR не запущен или событие не включено ни в одной записи, pipeline выполняется без изменений;
+ * иначе ввод и вывод команд считаются, и запись в канал вывода идет через промежуточный буфер.
+ *
+ * @author Sergey Sokolvyak
+ */
+public class RecordingCommandExecutor implements CommandExecutor {
+    private final CommandExecutor commandExecutor;
+
+    /**
+     * Конструктор исполнителя.
+     *
+     * @param commandExecutor исполнитель, выполняющий pipeline
+     */
+    public RecordingCommandExecutor(CommandExecutor commandExecutor) {
+        this.commandExecutor = commandExecutor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int execute(List<Command> pipeline, Session session) {
+        if (!Events.isRecording() || !new CommandEvent().isEnabled())
+            return commandExecutor.execute(pipeline, session);
+
+        List<Command> recordedPipeline = new ArrayList<>(pipeline.size());
+        for (Command command : pipeline)
+            recordedPipeline.add(new RecordedCommand(command));
+        return commandExecutor.execute(recordedPipeline, session);
+    }
+
+    private static final class RecordedCommand extends ForwardingCommand {
+        private RecordedCommand(Command command) {
+            super(command);
+        }
+
+        @Override
+        public int execute() {
+            var event = new CommandEvent();
+            event.begin();
+            int exitCode = 0;
+            boolean failed = true;
+            try {
+                exitCode = command.execute();
+                failed = false;
+                return exitCode;
+            } finally {
+                if (event.shouldCommit()) {
+                    event.commandName = getName();
+                    event.argumentCount = getArgumentCount();
+                    event.bytesRead = getBytesRead();
+                    event.bytesWritten = getBytesWritten();
+                    event.exitCode = exitCode;
+                    event.failed = failed;
+                    event.commit();
+                }
+            }
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package ru.itmo.se.cli.command.execution;
 
 import ru.itmo.se.cli.command.Command;
-import ru.itmo.se.cli.environment.Console;
+import ru.itmo.se.cli.environment.BufferDescriptor;
+import ru.itmo.se.cli.environment.ConsoleDescriptor;
+import ru.itmo.se.cli.environment.Descriptor;
+import ru.itmo.se.cli.environment.Session;
 
+import java.util.Iterator;
 import java.util.List;
 
 /**
  * Класс, ответственной за инициирование выполнения pipeline-а команд.
+ * Команды выполняются по очереди, вывод каждой из них накапливается в памяти
+ * и передается следующей команде.
  *
  * @author Sergey Sokolvyak on 28.02.2021
  */
@@ -16,11 +22,21 @@ public class SimpleCommandExecutor implements CommandExecutor {
      * {@inheritDoc}
      */
     @Override
-    public int execute(List<Command> pipeline) {
-        for (Command command : pipeline) {
-            command.execute();
+    public int execute(List<Command> pipeline, Session session) {
+        int exitCode = 0;
+        Descriptor previousOutput = new ConsoleDescriptor(session.getConsole());
+        Iterator<Command> iterator = pipeline.iterator();
+        while (iterator.hasNext()) {
+            Command command = iterator.next();
+            Descriptor currentOutput = iterator.hasNext()
+                ? new BufferDescriptor()
+                : new ConsoleDescriptor(session.getConsole());
+            command.setInput(previousOutput);
+            command.setOutput(currentOutput);
+            exitCode = command.execute();
+            previousOutput = currentOutput;
         }
-        Console.getInstance().flush();
-        return 0;
+        session.getConsole().flush();
+        return exitCode;
     }
 }
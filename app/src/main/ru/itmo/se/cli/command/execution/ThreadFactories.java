@@ -0,0 +1,78 @@
+package ru.itmo.se.cli.command.execution;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Фабрики потоков, в которых выполняются команды pipeline-а и вспомогательные задачи.
+ * Проект собирается под Java 11, поэтому виртуальные потоки (Java 21+) запрашиваются через reflection:
+ * тот же артефакт использует их на новой JVM и потоки платформы на старой.
+ *
+ * @author Sergey Sokolvyak
+ */
+public final class ThreadFactories {
+    /**
+     * Системное свойство, значение {@code virtual} которого включает виртуальные потоки.
+     */
+    public static final String THREADS_PROPERTY = "cli.threads";
+
+    private ThreadFactories() {
+    }
+
+    /**
+     * Проверяет, запрошены ли виртуальные потоки свойством {@link #THREADS_PROPERTY}.
+     *
+     * @return true, если запрошены виртуальные потоки
+     */
+    public static boolean isVirtualRequested() {
+        return "virtual".equals(System.getProperty(THREADS_PROPERTY));
+    }
+
+    /**
+     * Возвращает фабрику потоков, выбранную свойством {@link #THREADS_PROPERTY}.
+     * Если виртуальные потоки запрошены, но не поддерживаются, используются потоки платформы.
+     *
+     * @param namePrefix префикс имени создаваемых потоков
+     * @return фабрика потоков
+     */
+    public static ThreadFactory configured(String namePrefix) {
+        return isVirtualRequested()
+            ? virtual(namePrefix).orElseGet(() -> platform(namePrefix))
+            : platform(namePrefix);
+    }
+
+    /**
+     * Возвращает фабрику daemon-потоков платформы.
+     *
+     * @param namePrefix префикс имени создаваемых потоков
+     * @return фабрика потоков
+     */
+    public static ThreadFactory platform(String namePrefix) {
+        var counter = new AtomicLong();
+        return runnable -> {
+            var thread = new Thread(runnable, namePrefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Возвращает фабрику виртуальных потоков, если текущая JVM их поддерживает.
+     *
+     * @param namePrefix префикс имени создаваемых потоков
+     * @return фабрика виртуальных потоков или пустое значение на JVM младше 21
+     */
+    public static Optional<ThreadFactory> virtual(String namePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return Optional.of((ThreadFactory) builderClass.getMethod("factory").invoke(builder));
+        } catch (NoSuchMethodException | ClassNotFoundException | IllegalAccessException
+            | InvocationTargetException e) {
+            return Optional.empty();
+        }
+    }
+}
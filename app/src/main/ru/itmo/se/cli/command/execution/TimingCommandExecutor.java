@@ -0,0 +1,150 @@
+package ru.itmo.se.cli.command.execution;
+
+import ru.itmo.se.cli.command.Command;
+import ru.itmo.se.cli.environment.Session;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Исполнитель, измеряющий выполнение pipeline-а другим исполнителем (команда {@code time}).
+ * Для каждой команды измеряются время выполнения, процессорное время и объем памяти, выделенной
+ * потоком команды, а также число прочитанных и записанных байт; после выполнения pipeline-а
+ * таблица со статистикой и итоговой строкой выводится в поток ошибок консоли сессии, даже если pipeline
+ * завершился ошибкой. Ошибка записи таблицы игнорируется и не меняет результат pipeline-а.
+ * Измерения выполняются в потоке, в котором исполнитель запускает команду, поэтому подходят для
+ * любого исполнителя. Процессорное время и память внешних процессов не учитываются.
+ *
+ * @author Sergey Sokolvyak
+ */
+public class TimingCommandExecutor implements CommandExecutor {
+    private static final String ROW_FORMAT = "%-16s %10s %10s %12s %12s %12s%n";
+    private static final long NOT_SUPPORTED = -1;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final long BYTES_PER_KILOBYTE = 1024;
+
+    private final CommandExecutor commandExecutor;
+
+    /**
+     * Конструктор исполнителя.
+     *
+     * @param commandExecutor исполнитель, выполняющий измеряемый pipeline
+     */
+    public TimingCommandExecutor(CommandExecutor commandExecutor) {
+        this.commandExecutor = commandExecutor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int execute(List<Command> pipeline, Session session) {
+        List<TimedCommand> stages = new ArrayList<>(pipeline.size());
+        for (Command command : pipeline)
+            stages.add(new TimedCommand(command));
+
+        long start = System.nanoTime();
+        try {
+            return commandExecutor.execute(new ArrayList<>(stages), session);
+        } finally {
+            printReport(stages, System.nanoTime() - start, session.getConsole().getErrorStream());
+        }
+    }
+
+    private static void printReport(List<TimedCommand> stages, long realNanos, OutputStream errorStream) {
+        var report = new StringBuilder(String.format(Locale.ROOT, ROW_FORMAT,
+            "stage", "real ms", "cpu ms", "bytes in", "bytes out", "alloc KB"));
+        long cpuNanos = 0;
+        long allocatedBytes = 0;
+        for (TimedCommand stage : stages) {
+            report.append(String.format(Locale.ROOT, ROW_FORMAT, stage.getName(),
+                formatMillis(stage.realNanos), formatMillis(stage.cpuNanos),
+                stage.getBytesRead(), stage.getBytesWritten(),
+                formatKilobytes(stage.allocatedBytes)));
+            cpuNanos = sumIfSupported(cpuNanos, stage.cpuNanos);
+            allocatedBytes = sumIfSupported(allocatedBytes, stage.allocatedBytes);
+        }
+        report.append(String.format(Locale.ROOT, ROW_FORMAT, "total",
+            formatMillis(realNanos), formatMillis(cpuNanos),
+            stages.isEmpty() ? 0 : stages.get(0).getBytesRead(),
+            stages.isEmpty() ? 0 : stages.get(stages.size() - 1).getBytesWritten(),
+            formatKilobytes(allocatedBytes)));
+        try {
+            errorStream.write(report.toString().getBytes(StandardCharsets.UTF_8));
+            errorStream.flush();
+        } catch (IOException ignored) {
+            // статистика не должна заменять результат pipeline-а: клиент сессии мог отключиться
+        }
+    }
+
+    private static long sumIfSupported(long total, long value) {
+        return total == NOT_SUPPORTED || value == NOT_SUPPORTED ? NOT_SUPPORTED : total + value;
+    }
+
+    private static String formatMillis(long nanos) {
+        return nanos == NOT_SUPPORTED ? "-" : String.format(Locale.ROOT, "%.2f", nanos / NANOS_PER_MILLI);
+    }
+
+    private static String formatKilobytes(long bytes) {
+        return bytes == NOT_SUPPORTED ? "-" : Long.toString(bytes / BYTES_PER_KILOBYTE);
+    }
+
+    /**
+     * Команда, измеряющая выполнение другой команды в потоке, в котором она запущена.
+     */
+    private static final class TimedCommand extends ForwardingCommand {
+        private volatile long realNanos;
+        private volatile long cpuNanos = NOT_SUPPORTED;
+        private volatile long allocatedBytes = NOT_SUPPORTED;
+
+        private TimedCommand(Command command) {
+            super(command);
+        }
+
+        @Override
+        public int execute() {
+            long startCpu = ThreadMetrics.cpuNanos();
+            long startAllocated = ThreadMetrics.allocatedBytes();
+            long start = System.nanoTime();
+            try {
+                return command.execute();
+            } finally {
+                realNanos = System.nanoTime() - start;
+                cpuNanos = difference(ThreadMetrics.cpuNanos(), startCpu);
+                allocatedBytes = difference(ThreadMetrics.allocatedBytes(), startAllocated);
+            }
+        }
+
+        private static long difference(long end, long start) {
+            return end == NOT_SUPPORTED || start == NOT_SUPPORTED ? NOT_SUPPORTED : end - start;
+        }
+    }
+
+    /**
+     * Счетчики текущего потока. Вынесены в отдельный класс, чтобы JMX загружался
+     * только при первом вызове команды {@code time}, а не при запуске интерпретатора.
+     */
+    private static final class ThreadMetrics {
+        private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+        private static long cpuNanos() {
+            return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : NOT_SUPPORTED;
+        }
+
+        @SuppressWarnings("deprecation")
+        private static long allocatedBytes() {
+            if (!(THREADS instanceof com.sun.management.ThreadMXBean))
+                return NOT_SUPPORTED;
+            var threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled())
+                return NOT_SUPPORTED;
+            return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ru.itmo.se.cli.command.execution;
+
+import ru.itmo.se.cli.command.Command;
+import ru.itmo.se.cli.environment.Session;
+import ru.itmo.se.cli.trace.Span;
+import ru.itmo.se.cli.trace.Tracer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Исполнитель, записывающий в трассу {@link Tracer} интервал выполнения pipeline-а другим исполнителем
+ * и интервал выполнения каждой его команды. Интервал команды записывается в потоке, в котором
+ * исполнитель ее запустил, поэтому в трассе видно, как команды pipeline-а выполняются одновременно.
+ * Если трассировка выключена, pipeline выполняется без изменений.
+ *
+ * @author Sergey Sokolvyak
+ */
+public class TracingCommandExecutor implements CommandExecutor {
+    private static final String CATEGORY = "execution";
+
+    private final CommandExecutor commandExecutor;
+
+    /**
+     * Конструктор исполнителя.
+     *
+     * @param commandExecutor исполнитель, выполняющий pipeline
+     */
+    public TracingCommandExecutor(CommandExecutor commandExecutor) {
+        this.commandExecutor = commandExecutor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int execute(List<Command> pipeline, Session session) {
+        if (!Tracer.isEnabled())
+            return commandExecutor.execute(pipeline, session);
+
+        List<Command> tracedPipeline = new ArrayList<>(pipeline.size());
+        for (Command command : pipeline)
+            tracedPipeline.add(new TracedCommand(command));
+        try (Span span = Tracer.span(CATEGORY, "execute").setArgument("stages", pipeline.size())) {
+            int exitCode = commandExecutor.execute(tracedPipeline, session);
+            span.setArgument("exitCode", exitCode);
+            return exitCode;
+        }
+    }
+
+    private static final class TracedCommand extends ForwardingCommand {
+        private TracedCommand(Command command) {
+            super(command);
+        }
+
+        @Override
+        public int execute() {
+            try (Span span = Tracer.span(CATEGORY, getName())) {
+                span.setArgument("arguments", getArgumentCount());
+                try {
+                    int exitCode = command.execute();
+                    span.setArgument("exitCode", exitCode);
+                    return exitCode;
+                } finally {
+                    span.setArgument("bytesRead", getBytesRead()).setArgument("bytesWritten", getBytesWritten());
+                }
+            }
+        }
+    }
+}
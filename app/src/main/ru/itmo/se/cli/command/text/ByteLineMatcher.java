@@ -0,0 +1,19 @@
+package ru.itmo.se.cli.command.text;
+
+/**
+ * Интерфейс проверки строки, которая может проверять строку в кодировке UTF-8 без ее декодирования.
+ * Результат проверки байт совпадает с результатом проверки декодированной строки.
+ *
+ * @author Sergey Sokolvyak
+ */
+public interface ByteLineMatcher extends LineMatcher {
+    /**
+     * Проверяет, содержит ли строка в кодировке UTF-8 совпадение с шаблоном.
+     *
+     * @param line массив, содержащий строку
+     * @param from индекс первого байта строки
+     * @param to   индекс байта, следующего за последним байтом строки (без символов конца строки)
+     * @return true, если совпадение найдено
+     */
+    boolean matches(byte[] line, int from, int to);
+}
@@ -0,0 +1,398 @@
+package ru.itmo.se.cli.command.text;
+
+import ru.itmo.se.cli.command.execution.CommandExecutionException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Класс, выполняющий поиск строк для команды grep.
+ * Файлы делятся на участки, выровненные по границам строк, и участки всех файлов
+ * обрабатываются параллельно. Результаты выводятся в исходном порядке файлов и строк;
+ * строки контекста после совпадения переносятся через границы участков.
+ * Файлы читаются в кодировке по умолчанию, которая должна быть совместима с ASCII.
+ * Если кодировка -- UTF-8, а проверка строк реализует {@link ByteLineMatcher} (поиск подстроки),
+ * строки проверяются прямо в прочитанных байтах, и декодируются только выводимые строки.
+ *
+ * @author Sergey Sokolvyak
+ */
+public final class GrepEngine {
+    private static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final int BOUNDARY_SEARCH_BUFFER_SIZE = 8 * 1024;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private final Supplier<LineMatcher> matcherFactory;
+    private final int trailingLines;
+    private final int chunkSize;
+    private final Executor executor;
+    private final int maxChunksInFlight;
+    private final Charset charset;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param matcherFactory фабрика, создающая проверку строк для каждой задачи поиска
+     * @param trailingLines  кол-во строк, которые необходимо напечатать после совпадения
+     */
+    public GrepEngine(Supplier<LineMatcher> matcherFactory, int trailingLines) {
+        this(matcherFactory, trailingLines, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool(),
+            2 * ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    GrepEngine(Supplier<LineMatcher> matcherFactory, int trailingLines, int chunkSize,
+               Executor executor, int maxChunksInFlight) {
+        this(matcherFactory, trailingLines, chunkSize, executor, maxChunksInFlight, Charset.defaultCharset());
+    }
+
+    GrepEngine(Supplier<LineMatcher> matcherFactory, int trailingLines, int chunkSize,
+               Executor executor, int maxChunksInFlight, Charset charset) {
+        this.matcherFactory = matcherFactory;
+        this.trailingLines = trailingLines;
+        this.chunkSize = chunkSize;
+        this.executor = executor;
+        this.maxChunksInFlight = Math.max(1, maxChunksInFlight);
+        this.charset = charset;
+    }
+
+    /**
+     * Ищет подходящие строки в файлах и записывает их в порядке следования.
+     * Имя файла "-" обозначает поток ввода.
+     *
+     * @param filenames   список имен файлов
+     * @param input       поток ввода; не закрывается, им владеет исполнитель pipeline-а
+     * @param destination получатель найденных строк
+     * @throws IOException если не удалось записать результат
+     */
+    public void search(List<String> filenames, InputStream input, Writer destination) throws IOException {
+        var state = new OutputState(destination);
+        Deque<PendingChunk> inFlight = new ArrayDeque<>();
+        for (String filename : filenames) {
+            if (filename.contentEquals("-")) {
+                while (!inFlight.isEmpty())
+                    writeResult(inFlight.poll(), state);
+                searchInStream(input, destination);
+                continue;
+            }
+
+            for (Chunk chunk : splitIntoChunks(filename)) {
+                while (inFlight.size() >= maxChunksInFlight)
+                    writeResult(inFlight.poll(), state);
+                inFlight.add(submit(chunk));
+            }
+        }
+        while (!inFlight.isEmpty())
+            writeResult(inFlight.poll(), state);
+    }
+
+    private void searchInStream(InputStream input, Writer destination) throws IOException {
+        LineMatcher matcher = matcherFactory.get();
+        if (isByteSearch(matcher)) {
+            searchBytesInStream((ByteLineMatcher) matcher, input, destination);
+            return;
+        }
+        String line;
+        int count = 0;
+        var bufferedReader = new BufferedReader(new InputStreamReader(input, charset));
+        try {
+            while (Objects.nonNull(line = bufferedReader.readLine())) {
+                if (matcher.matches(line)) {
+                    count = trailingLines;
+                    destination.append(line).append('\n');
+                } else if (count > 0) {
+                    destination.append(line).append('\n');
+                    count--;
+                }
+            }
+        } catch (IOException e) {
+            throw new CommandExecutionException("Grep command error: cannot read input", e);
+        }
+    }
+
+    private void searchBytesInStream(ByteLineMatcher matcher, InputStream input, Writer destination)
+        throws IOException {
+        var buffer = new byte[STREAM_BUFFER_SIZE];
+        int size = 0;
+        int scanned = 0;
+        int count = 0;
+        try {
+            int read;
+            while ((read = input.read(buffer, size, buffer.length - size)) >= 0) {
+                size += read;
+                int lineStart = 0;
+                for (; scanned < size; scanned++) {
+                    if (buffer[scanned] == '\n') {
+                        count = acceptStreamLine(matcher, buffer, lineStart, scanned, count, destination);
+                        lineStart = scanned + 1;
+                    }
+                }
+                System.arraycopy(buffer, lineStart, buffer, 0, size - lineStart);
+                size -= lineStart;
+                scanned = size;
+                if (size == buffer.length)
+                    buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+            }
+            if (size > 0)
+                acceptStreamLine(matcher, buffer, 0, size, count, destination);
+        } catch (IOException e) {
+            throw new CommandExecutionException("Grep command error: cannot read input", e);
+        }
+    }
+
+    private int acceptStreamLine(ByteLineMatcher matcher, byte[] bytes, int from, int to, int count,
+                                 Writer destination) throws IOException {
+        to = stripCarriageReturn(bytes, from, to);
+        if (matcher.matches(bytes, from, to)) {
+            destination.append(decodeLine(bytes, from, to)).append('\n');
+            return trailingLines;
+        }
+        if (count > 0) {
+            destination.append(decodeLine(bytes, from, to)).append('\n');
+            return count - 1;
+        }
+        return 0;
+    }
+
+    private boolean isByteSearch(LineMatcher matcher) {
+        return matcher instanceof ByteLineMatcher && charset.equals(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Делит файл на участки, не запуская их обработку: задача поиска создается только тогда,
+     * когда число обрабатываемых участков становится меньше {@code maxChunksInFlight}.
+     *
+     * @param filename имя файла
+     * @return участки файла в порядке следования
+     */
+    private List<Chunk> splitIntoChunks(String filename) {
+        List<Chunk> chunks = new ArrayList<>();
+        try (var channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                chunks.add(new Chunk(filename, 0, Chunk.UNSIZED, null));
+                return chunks;
+            }
+            long start = 0;
+            while (start < size) {
+                long end = start + chunkSize >= size ? size : findLineEnd(channel, start + chunkSize, size);
+                chunks.add(new Chunk(filename, start, end, null));
+                start = end;
+            }
+        } catch (IOException e) {
+            chunks.add(new Chunk(filename, 0, Chunk.UNSIZED, e));
+        }
+        return chunks;
+    }
+
+    private PendingChunk submit(Chunk chunk) {
+        Path path = Path.of(chunk.filename);
+        CompletableFuture<ChunkResult> future;
+        if (chunk.failure != null)
+            future = CompletableFuture.failedFuture(chunk.failure);
+        else if (chunk.end == Chunk.UNSIZED)
+            future = CompletableFuture.supplyAsync(() -> searchInUnsizedFile(path), executor);
+        else
+            future = CompletableFuture.supplyAsync(() -> searchInChunk(path, chunk.start, chunk.end), executor);
+        return new PendingChunk(chunk.filename, chunk.start == 0, future);
+    }
+
+    private static long findLineEnd(FileChannel channel, long position, long size) throws IOException {
+        var buffer = ByteBuffer.allocate(BOUNDARY_SEARCH_BUFFER_SIZE);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0)
+                break;
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n')
+                    return position + i + 1;
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private ChunkResult searchInChunk(Path path, long start, long end) {
+        var bytes = new byte[Math.toIntExact(end - start)];
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0)
+                    break;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        var result = new ChunkResult(matcherFactory.get());
+        int lineStart = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                result.accept(bytes, lineStart, stripCarriageReturn(bytes, lineStart, i));
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart < bytes.length)
+            result.accept(bytes, lineStart, stripCarriageReturn(bytes, lineStart, bytes.length));
+        return result;
+    }
+
+    private ChunkResult searchInUnsizedFile(Path path) {
+        var result = new ChunkResult(matcherFactory.get());
+        try (var bufferedReader = Files.newBufferedReader(path, charset)) {
+            String line;
+            while (Objects.nonNull(line = bufferedReader.readLine()))
+                result.accept(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result;
+    }
+
+    private static int stripCarriageReturn(byte[] bytes, int from, int to) {
+        return to > from && bytes[to - 1] == '\r' ? to - 1 : to;
+    }
+
+    private String decodeLine(byte[] bytes, int from, int to) {
+        return new String(bytes, from, to - from, charset);
+    }
+
+    private void writeResult(PendingChunk chunk, OutputState state) throws IOException {
+        ChunkResult result;
+        try {
+            result = chunk.future.join();
+        } catch (CompletionException e) {
+            throw new CommandExecutionException(
+                String.format("Grep command error: cannot read file %s", chunk.filename), e.getCause());
+        }
+
+        if (chunk.isFirstInFile)
+            state.carriedLines = 0;
+        int carried = Math.min(state.carriedLines, result.leadingLines.size());
+        for (int i = 0; i < carried; i++)
+            state.destination.append(result.leadingLines.get(i)).append('\n');
+        state.destination.append(result.output);
+        state.carriedLines = result.hasMatch
+            ? result.remainingLines
+            : (int) Math.max(0, state.carriedLines - result.lineCount);
+    }
+
+    /**
+     * Участок файла, поиск в котором еще не запущен. Файл нулевого размера (например, из /proc)
+     * читается целиком одним участком без известного конца.
+     */
+    private static final class Chunk {
+        private static final long UNSIZED = -1;
+
+        private final String filename;
+        private final long start;
+        private final long end;
+        private final IOException failure;
+
+        private Chunk(String filename, long start, long end, IOException failure) {
+            this.filename = filename;
+            this.start = start;
+            this.end = end;
+            this.failure = failure;
+        }
+    }
+
+    private static final class PendingChunk {
+        private final String filename;
+        private final boolean isFirstInFile;
+        private final CompletableFuture<ChunkResult> future;
+
+        private PendingChunk(String filename, boolean isFirstInFile, CompletableFuture<ChunkResult> future) {
+            this.filename = filename;
+            this.isFirstInFile = isFirstInFile;
+            this.future = future;
+        }
+    }
+
+    private static final class OutputState {
+        private final Writer destination;
+        private int carriedLines;
+
+        private OutputState(Writer destination) {
+            this.destination = destination;
+        }
+    }
+
+    /**
+     * Результат поиска в участке файла, вычисленный без учета контекста предыдущих участков.
+     * Строки до первого совпадения сохраняются отдельно: они попадают в вывод,
+     * только если совпадение в предыдущем участке требует продолжения контекста.
+     * Строки, которые не попадают ни в вывод, ни в начальные строки, не декодируются.
+     */
+    private final class ChunkResult {
+        private final LineMatcher matcher;
+        private final boolean isByteSearch;
+        private final List<String> leadingLines = new ArrayList<>();
+        private final StringBuilder output = new StringBuilder();
+        private boolean hasMatch;
+        private int remainingLines;
+        private long lineCount;
+
+        private ChunkResult(LineMatcher matcher) {
+            this.matcher = matcher;
+            this.isByteSearch = isByteSearch(matcher);
+        }
+
+        private void accept(String line) {
+            if (accept(matcher.matches(line)))
+                keep(line);
+        }
+
+        private void accept(byte[] bytes, int from, int to) {
+            if (!isByteSearch)
+                accept(decodeLine(bytes, from, to));
+            else if (accept(((ByteLineMatcher) matcher).matches(bytes, from, to)))
+                keep(decodeLine(bytes, from, to));
+        }
+
+        /**
+         * Учитывает строку и возвращает, нужна ли она в выводе или в начальных строках.
+         *
+         * @param isMatch содержит ли строка совпадение
+         * @return true, если строку нужно сохранить
+         */
+        private boolean accept(boolean isMatch) {
+            lineCount++;
+            if (isMatch) {
+                hasMatch = true;
+                remainingLines = trailingLines;
+                return true;
+            }
+            if (!hasMatch)
+                return leadingLines.size() < trailingLines;
+            if (remainingLines > 0) {
+                remainingLines--;
+                return true;
+            }
+            return false;
+        }
+
+        private void keep(String line) {
+            if (hasMatch)
+                output.append(line).append('\n');
+            else
+                leadingLines.add(line);
+        }
+    }
+}
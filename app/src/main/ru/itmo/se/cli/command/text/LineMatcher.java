@@ -0,0 +1,17 @@
+package ru.itmo.se.cli.command.text;
+
+/**
+ * Интерфейс проверки строки на соответствие шаблону поиска.
+ * Реализации могут хранить изменяемое состояние, поэтому один экземпляр используется одним потоком.
+ *
+ * @author Sergey Sokolvyak
+ */
+public interface LineMatcher {
+    /**
+     * Проверяет, содержит ли строка совпадение с шаблоном.
+     *
+     * @param line проверяемая строка
+     * @return true, если совпадение найдено
+     */
+    boolean matches(CharSequence line);
+}
@@ -0,0 +1,174 @@
+package ru.itmo.se.cli.command.text;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * Класс, ищущий в строках фиксированную подстроку алгоритмом Бойера-Мура-Хорспула.
+ * Результат совпадает с поиском регулярным выражением из экранированной подстроки:
+ * без учета регистра сравниваются только символы ASCII (как с {@code Pattern.CASE_INSENSITIVE}),
+ * а поиск целых слов проверяет границы слова так же, как {@code \b}. Границы из символов ASCII
+ * проверяются напрямую; если с одной из сторон границы стоит символ вне ASCII, строка проверяется
+ * регулярным выражением, потому что смысл {@code \b} для таких символов зависит от версии JDK
+ * (начиная с JDK 19 словом считаются только символы ASCII).
+ * Строки в UTF-8 проверяются без декодирования: ищется UTF-8 представление подстроки, а символы
+ * вне ASCII, кодируемые байтами не меньше 0x80, никогда не совпадают с байтами символов ASCII.
+ * Экземпляр не изменяется после создания и может использоваться несколькими потоками.
+ *
+ * @author Sergey Sokolvyak
+ */
+public final class LiteralLineMatcher implements ByteLineMatcher {
+    private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+    private static final int SHIFT_TABLE_SIZE = 256;
+    private static final int SHIFT_TABLE_MASK = SHIFT_TABLE_SIZE - 1;
+    private static final char FIRST_NON_ASCII = 0x80;
+
+    private final char[] pattern;
+    private final int[] shifts = new int[SHIFT_TABLE_SIZE];
+    private final byte[] bytePattern;
+    private final int[] byteShifts = new int[1 << Byte.SIZE];
+    private final boolean ignoreCase;
+    private final boolean matchWords;
+    private final Pattern wordPattern;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param literal    искомая подстрока, не может быть пустой
+     * @param ignoreCase флаг поиска без учета регистра
+     * @param matchWords флаг поиска только целых слов
+     */
+    public LiteralLineMatcher(String literal, boolean ignoreCase, boolean matchWords) {
+        if (literal.isEmpty())
+            throw new IllegalArgumentException("Literal must not be empty");
+        this.ignoreCase = ignoreCase;
+        this.matchWords = matchWords;
+        this.wordPattern = matchWords
+            ? Pattern.compile("\\b" + Pattern.quote(literal) + "\\b", ignoreCase ? Pattern.CASE_INSENSITIVE : 0)
+            : null;
+        this.pattern = new char[literal.length()];
+        for (int i = 0; i < pattern.length; i++)
+            pattern[i] = fold(literal.charAt(i));
+
+        Arrays.fill(shifts, pattern.length);
+        for (int i = 0; i < pattern.length - 1; i++)
+            shifts[pattern[i] & SHIFT_TABLE_MASK] = pattern.length - 1 - i;
+
+        this.bytePattern = new String(pattern).getBytes(StandardCharsets.UTF_8);
+        Arrays.fill(byteShifts, bytePattern.length);
+        for (int i = 0; i < bytePattern.length - 1; i++)
+            byteShifts[Byte.toUnsignedInt(bytePattern[i])] = bytePattern.length - 1 - i;
+    }
+
+    /**
+     * Проверяет, что регулярное выражение не содержит метасимволов и совпадает с подстрокой.
+     *
+     * @param regex регулярное выражение
+     * @return true, если выражение можно искать как подстроку
+     */
+    public static boolean isLiteral(String regex) {
+        if (regex.isEmpty())
+            return false;
+        for (int i = 0; i < regex.length(); i++) {
+            if (REGEX_METACHARACTERS.indexOf(regex.charAt(i)) >= 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean matches(CharSequence line) {
+        int last = pattern.length - 1;
+        int position = 0;
+        while (position <= line.length() - pattern.length) {
+            char current = fold(line.charAt(position + last));
+            if (current == pattern[last] && regionMatches(line, position)) {
+                int end = position + pattern.length;
+                if (!matchWords)
+                    return true;
+                if (!isAsciiBoundary(line, position) || !isAsciiBoundary(line, end))
+                    return wordPattern.matcher(line).find();
+                if (isBoundary(line, position) && isBoundary(line, end))
+                    return true;
+            }
+            position += shifts[current & SHIFT_TABLE_MASK];
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean matches(byte[] line, int from, int to) {
+        int last = bytePattern.length - 1;
+        int position = from;
+        while (position <= to - bytePattern.length) {
+            byte current = fold(line[position + last]);
+            if (current == bytePattern[last] && regionMatches(line, position)) {
+                int end = position + bytePattern.length;
+                if (!matchWords)
+                    return true;
+                if (!isAsciiBoundary(line, from, to, position) || !isAsciiBoundary(line, from, to, end))
+                    return wordPattern.matcher(new String(line, from, to - from, StandardCharsets.UTF_8)).find();
+                if (isBoundary(line, from, to, position) && isBoundary(line, from, to, end))
+                    return true;
+            }
+            position += byteShifts[Byte.toUnsignedInt(current)];
+        }
+        return false;
+    }
+
+    private boolean regionMatches(CharSequence line, int position) {
+        for (int i = 0; i < pattern.length - 1; i++) {
+            if (fold(line.charAt(position + i)) != pattern[i])
+                return false;
+        }
+        return true;
+    }
+
+    private boolean regionMatches(byte[] line, int position) {
+        for (int i = 0; i < bytePattern.length - 1; i++) {
+            if (fold(line[position + i]) != bytePattern[i])
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isAsciiBoundary(CharSequence line, int position) {
+        return (position == 0 || line.charAt(position - 1) < FIRST_NON_ASCII)
+            && (position == line.length() || line.charAt(position) < FIRST_NON_ASCII);
+    }
+
+    private static boolean isBoundary(CharSequence line, int position) {
+        boolean isWordBefore = position > 0 && isWordChar(line.charAt(position - 1));
+        boolean isWordAfter = position < line.length() && isWordChar(line.charAt(position));
+        return isWordBefore != isWordAfter;
+    }
+
+    private static boolean isAsciiBoundary(byte[] line, int from, int to, int position) {
+        return (position == from || line[position - 1] >= 0) && (position == to || line[position] >= 0);
+    }
+
+    private static boolean isBoundary(byte[] line, int from, int to, int position) {
+        boolean isWordBefore = position > from && isWordChar((char) line[position - 1]);
+        boolean isWordAfter = position < to && isWordChar((char) line[position]);
+        return isWordBefore != isWordAfter;
+    }
+
+    private static boolean isWordChar(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_';
+    }
+
+    private char fold(char c) {
+        return ignoreCase && c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private byte fold(byte b) {
+        return ignoreCase && b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+}
@@ -0,0 +1,31 @@
+package ru.itmo.se.cli.command.text;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Класс, проверяющий строки регулярным выражением.
+ * Один {@link Matcher} переиспользуется для всех строк.
+ *
+ * @author Sergey Sokolvyak
+ */
+public class RegexLineMatcher implements LineMatcher {
+    private final Matcher matcher;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param pattern регулярное выражение
+     */
+    public RegexLineMatcher(Pattern pattern) {
+        this.matcher = pattern.matcher("");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean matches(CharSequence line) {
+        return matcher.reset(line).find();
+    }
+}
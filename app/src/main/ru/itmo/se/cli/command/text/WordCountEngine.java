@@ -0,0 +1,174 @@
+package ru.itmo.se.cli.command.text;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Класс, подсчитывающий количество строк, слов и байт.
+ * Файл отображается в память и делится на участки, которые обрабатываются параллельно
+ * в {@link ForkJoinPool}. Участки режутся по фиксированным смещениям: слово, разрезанное границей,
+ * учитывается один раз при слиянии результатов, поэтому итог совпадает с последовательным подсчетом.
+ * Словом считается максимальная последовательность байт, не являющихся пробельными символами ASCII.
+ *
+ * @author Sergey Sokolvyak
+ */
+public final class WordCountEngine {
+    private static final long DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final boolean[] WHITESPACE = new boolean[1 << Byte.SIZE];
+
+    static {
+        for (char c : new char[]{' ', '\n', '\t', '\r', '\f', '\u000B'})
+            WHITESPACE[c] = true;
+    }
+
+    private final long chunkSize;
+
+    /**
+     * Конструктор счетчика.
+     */
+    public WordCountEngine() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    WordCountEngine(long chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Подсчитывает количество строк, слов и байт в файле.
+     *
+     * @param path путь к файлу
+     * @return массив из количества строк, слов и байт
+     * @throws IOException если файл не удалось прочитать
+     */
+    public long[] countInFile(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                try (var stream = Files.newInputStream(path)) {
+                    return countInStream(stream);
+                }
+            }
+            var task = new ChunkTask(channel, 0, size);
+            Counts counts = size <= chunkSize ? task.compute() : ForkJoinPool.commonPool().invoke(task);
+            return counts.toArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Подсчитывает количество строк, слов и байт в потоке.
+     *
+     * @param source поток ввода
+     * @return массив из количества строк, слов и байт
+     * @throws IOException если поток не удалось прочитать
+     */
+    public long[] countInStream(InputStream source) throws IOException {
+        long countOfBytes = 0;
+        long countOfLines = 0;
+        long countOfWords = 0;
+        boolean isInsideWord = false;
+        var chunk = new byte[BUFFER_SIZE];
+        int chunkLength;
+        while ((chunkLength = source.read(chunk)) != -1) {
+            countOfBytes += chunkLength;
+            for (int i = 0; i < chunkLength; i++) {
+                byte current = chunk[i];
+                if (current == '\n')
+                    countOfLines++;
+                if (WHITESPACE[Byte.toUnsignedInt(current)]) {
+                    isInsideWord = false;
+                } else if (!isInsideWord) {
+                    isInsideWord = true;
+                    countOfWords++;
+                }
+            }
+        }
+        return new long[]{countOfLines, countOfWords, countOfBytes};
+    }
+
+    private static final class Counts {
+        private long lines;
+        private long words;
+        private long bytes;
+        private boolean startsInsideWord;
+        private boolean endsInsideWord;
+
+        private Counts merge(Counts next) {
+            var merged = new Counts();
+            merged.lines = lines + next.lines;
+            merged.words = words + next.words - (endsInsideWord && next.startsInsideWord ? 1 : 0);
+            merged.bytes = bytes + next.bytes;
+            merged.startsInsideWord = startsInsideWord;
+            merged.endsInsideWord = next.endsInsideWord;
+            return merged;
+        }
+
+        private long[] toArray() {
+            return new long[]{lines, words, bytes};
+        }
+    }
+
+    private final class ChunkTask extends RecursiveTask<Counts> {
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+
+        private ChunkTask(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Counts compute() {
+            if (end - start <= chunkSize)
+                return countInChunk();
+
+            long middle = start + (end - start) / 2;
+            var left = new ChunkTask(channel, start, middle);
+            var right = new ChunkTask(channel, middle, end);
+            left.fork();
+            Counts rightCounts = right.compute();
+            return left.join().merge(rightCounts);
+        }
+
+        private Counts countInChunk() {
+            MappedByteBuffer buffer;
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            var counts = new Counts();
+            int length = buffer.limit();
+            boolean isInsideWord = false;
+            for (int i = 0; i < length; i++) {
+                byte current = buffer.get(i);
+                if (current == '\n')
+                    counts.lines++;
+                if (WHITESPACE[Byte.toUnsignedInt(current)]) {
+                    isInsideWord = false;
+                } else if (!isInsideWord) {
+                    isInsideWord = true;
+                    counts.words++;
+                }
+            }
+            counts.bytes = length;
+            counts.startsInsideWord = length > 0 && !WHITESPACE[Byte.toUnsignedInt(buffer.get(0))];
+            counts.endsInsideWord = isInsideWord;
+            return counts;
+        }
+    }
+}
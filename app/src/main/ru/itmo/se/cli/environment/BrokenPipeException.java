@@ -0,0 +1,19 @@
+package ru.itmo.se.cli.environment;
+
+import java.io.IOException;
+
+/**
+ * Ошибка записи в канал, читающая сторона которого уже закрыта.
+ *
+ * @author Sergey Sokolvyak
+ */
+public class BrokenPipeException extends IOException {
+    /**
+     * Конструктор класса ошибки.
+     *
+     * @param message описание ошибки
+     */
+    public BrokenPipeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,46 @@
+package ru.itmo.se.cli.environment;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Класс дескриптора, хранящего вывод команды в памяти до запуска следующей команды pipeline-а.
+ * Данные читаются из того же массива, в который были записаны, без промежуточных копий.
+ *
+ * @author Sergey Sokolvyak
+ */
+public class BufferDescriptor implements Descriptor {
+    private final Buffer buffer = new Buffer();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream getInputStream() {
+        return new ByteArrayInputStream(buffer.array(), 0, buffer.size());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public OutputStream getOutputStream() {
+        return buffer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DescriptorType getType() {
+        return DescriptorType.Pipe;
+    }
+
+    private static class Buffer extends ByteArrayOutputStream {
+        private byte[] array() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package ru.itmo.se.cli.environment;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Таблица путей к исполняемым файлам внешних команд, аналог таблицы команды {@code hash} в bash.
+ * Путь к команде ищется по каталогам {@code PATH} один раз, а при следующих вызовах берется из таблицы
+ * и проверяется одним обращением к файловой системе. Таблица очищается при изменении {@code PATH},
+ * а запись удаляется, если файл перестал существовать или быть исполняемым.
+ * Значение {@code PATH} берется из переменной сессии, а если она не задана — из окружения процесса.
+ *
+ * @author Sergey Sokolvyak
+ */
+public final class CommandHashTable {
+    /**
+     * Имя переменной, содержащей список каталогов для поиска команд.
+     */
+    public static final String PATH_VARIABLE = "PATH";
+
+    private final AtomicReference<Table> table = new AtomicReference<>(new Table(""));
+
+    private static final class Table {
+        private final String path;
+        private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+        private Table(String path) {
+            this.path = path;
+        }
+    }
+
+    private static final class Entry {
+        private final Path location;
+        private final LongAdder hits = new LongAdder();
+
+        private Entry(Path location) {
+            this.location = location;
+        }
+    }
+
+    /**
+     * Возвращает значение {@code PATH} для сессии с заданным контекстом.
+     *
+     * @param context контекст сессии
+     * @return список каталогов для поиска команд
+     */
+    public static String getSearchPath(Context context) {
+        String path = context.getVariable(PATH_VARIABLE);
+        if (!path.isEmpty())
+            return path;
+        String environmentPath = System.getenv(PATH_VARIABLE);
+        return environmentPath == null ? "" : environmentPath;
+    }
+
+    /**
+     * Возвращает путь к исполняемому файлу команды и увеличивает счетчик ее вызовов.
+     * Имена, содержащие разделитель пути, не ищутся в {@code PATH} и не запоминаются.
+     *
+     * @param name имя команды
+     * @param path список каталогов для поиска команды
+     * @return путь к исполняемому файлу, если он найден
+     */
+    public Optional<Path> resolve(String name, String path) {
+        Optional<Entry> entry = lookup(name, path);
+        entry.ifPresent(found -> found.hits.increment());
+        return entry.map(found -> found.location);
+    }
+
+    /**
+     * Ищет команду в {@code PATH} и запоминает путь к ней, не увеличивая счетчик вызовов.
+     *
+     * @param name имя команды
+     * @param path список каталогов для поиска команды
+     * @return true, если команда найдена
+     */
+    public boolean remember(String name, String path) {
+        return lookup(name, path).isPresent();
+    }
+
+    /**
+     * Возвращает запомненные команды в порядке имен: путь к исполняемому файлу и число вызовов.
+     * Если {@code PATH} изменился, таблица предварительно очищается.
+     *
+     * @param path текущий список каталогов для поиска команд
+     * @return отображение пути к исполняемому файлу команды в число ее вызовов
+     */
+    public Map<Path, Long> getEntries(String path) {
+        var result = new LinkedHashMap<Path, Long>();
+        new TreeMap<>(tableFor(path).entries)
+            .values()
+            .forEach(entry -> result.put(entry.location, entry.hits.sum()));
+        return result;
+    }
+
+    /**
+     * Очищает таблицу.
+     */
+    public void clear() {
+        table.set(new Table(table.get().path));
+    }
+
+    private Optional<Entry> lookup(String name, String path) {
+        if (name.isEmpty() || name.indexOf('/') >= 0 || name.indexOf(File.separatorChar) >= 0)
+            return Optional.empty();
+
+        Table current = tableFor(path);
+        if (!current.path.equals(path))
+            return Optional.ofNullable(search(name, path)).map(Entry::new);
+
+        Entry entry = current.entries.get(name);
+        if (entry != null) {
+            if (Files.isExecutable(entry.location))
+                return Optional.of(entry);
+            current.entries.remove(name, entry);
+        }
+
+        Path location = search(name, path);
+        if (location == null)
+            return Optional.empty();
+        if (!location.isAbsolute())
+            return Optional.of(new Entry(location));
+        return Optional.of(current.entries.computeIfAbsent(name, ignored -> new Entry(location)));
+    }
+
+    private Table tableFor(String path) {
+        Table current = table.get();
+        if (current.path.equals(path))
+            return current;
+        var updated = new Table(path);
+        return table.compareAndSet(current, updated) ? updated : table.get();
+    }
+
+    private static Path search(String name, String path) {
+        for (String directory : path.split(File.pathSeparator)) {
+            if (directory.isEmpty())
+                directory = ".";
+            Path candidate;
+            try {
+                candidate = Path.of(directory, name);
+            } catch (InvalidPathException e) {
+                continue;
+            }
+            if (Files.isRegularFile(candidate) && Files.isExecutable(candidate))
+                return candidate;
+        }
+        return null;
+    }
+}
@@ -1,55 +1,157 @@
 package ru.itmo.se.cli.environment;
 
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.function.Supplier;
+
 /**
- * Класс, представляющий консоль.
+ * Класс, представляющий консоль сессии интерпретатора: ее поток ввода, поток вывода и поток ошибок.
+ * Консоль процесса, работающая со стандартными потоками, возвращается методом {@link #system()}.
+ * Вывод консоли накапливается в буфере и печатается в соответствии с политикой сброса {@link FlushPolicy}:
+ * у консоли процесса она выбирается в зависимости от того, выводится ли результат в терминал.
  *
  * @author Sergey Sokolvyak
  */
 public final class Console {
-    private final StringBuilder buffer = new StringBuilder();
+    private static final int OUTPUT_BUFFER_SIZE = 128 * 1024;
+    private static final int ERROR_BUFFER_SIZE = 8 * 1024;
+
+    private final Supplier<InputStream> inputStream;
+    private final ConsoleOutputStream outputStream;
+    private final ConsoleOutputStream errorStream;
+    private final WritableByteChannel channel;
 
     private static class ConsoleHolder {
-        public static final Console HOLDER_INSTANCE = new Console();
+        public static final Console HOLDER_INSTANCE = new Console(
+            () -> System.in,
+            new FileOutputStream(FileDescriptor.out),
+            new FileOutputStream(FileDescriptor.err),
+            OUTPUT_BUFFER_SIZE,
+            FlushPolicy.forStandardOutput()
+        );
+    }
+
+    /**
+     * Конструктор консоли, работающей с переданными потоками, например с потоками сокета.
+     * Вывод печатается по политике {@link FlushPolicy#BUFFER}.
+     *
+     * @param inputStream  поток ввода консоли
+     * @param outputStream поток вывода консоли
+     * @param errorStream  поток вывода ошибок консоли
+     */
+    public Console(InputStream inputStream, OutputStream outputStream, OutputStream errorStream) {
+        this(() -> inputStream, outputStream, errorStream, OUTPUT_BUFFER_SIZE, FlushPolicy.BUFFER);
+    }
+
+    private Console(Supplier<InputStream> inputStream, OutputStream outputStream, OutputStream errorStream,
+                    int bufferSize, FlushPolicy flushPolicy) {
+        this.inputStream = inputStream;
+        this.channel = channelOf(outputStream);
+        this.outputStream = new ConsoleOutputStream(channel, flushableOf(outputStream), bufferSize, flushPolicy);
+        this.errorStream = new ConsoleOutputStream(channelOf(errorStream), flushableOf(errorStream),
+            ERROR_BUFFER_SIZE, FlushPolicy.LINE);
     }
 
-    private Console() {
+    /**
+     * Создает неинтерактивную консоль, например для выполнения скрипта. Вывод накапливается в буфере
+     * и печатается, только когда буфер заполнится или будет вызван {@link #drain()}.
+     *
+     * @param inputStream  поток ввода консоли
+     * @param outputStream поток вывода консоли
+     * @param errorStream  поток вывода ошибок консоли
+     * @param bufferSize   размер буфера вывода в байтах
+     * @return неинтерактивная консоль
+     * @see FlushPolicy#DEFERRED
+     */
+    public static Console buffered(InputStream inputStream, OutputStream outputStream, OutputStream errorStream,
+                                   int bufferSize) {
+        return new Console(() -> inputStream, outputStream, errorStream, bufferSize, FlushPolicy.DEFERRED);
     }
 
     /**
-     * Возвращает единственный экземляр консоли.
+     * Возвращает консоль процесса, работающую со стандартными потоками ввода-вывода.
      *
-     * @return единственный экземляр консоли
+     * @return консоль процесса
      */
-    public static Console getInstance() {
+    public static Console system() {
         return Console.ConsoleHolder.HOLDER_INSTANCE;
     }
 
     /**
-     * Записывает данные в буфер консоли, стирая прошлое содержимое.
+     * Возвращает поток ввода консоли.
      *
-     * @param input данные для записи
+     * @return поток ввода консоли
      */
-    public void writeToBuffer(String input) {
-        buffer.setLength(0);
-        buffer.append(input);
+    public InputStream getInputStream() {
+        return inputStream.get();
     }
 
     /**
-     * Возвращает буфер консоли.
+     * Возвращает поток вывода консоли. Закрытие и сброс потока командами печатают данные,
+     * только если этого требует политика сброса.
      *
-     * @return буфер консоли
+     * @return поток вывода консоли
      */
-    public String readFromBuffer() {
-        return buffer.toString();
+    public OutputStream getOutputStream() {
+        return outputStream;
     }
 
     /**
-     * Печатает содержимое буфера консоли в консоли ввода-вывода.
+     * Возвращает поток вывода ошибок консоли. Ошибки печатаются построчно.
+     *
+     * @return поток вывода ошибок консоли
+     */
+    public OutputStream getErrorStream() {
+        return errorStream;
+    }
+
+    /**
+     * Возвращает канал, в который консоль печатает вывод, например канал стандартного потока вывода.
+     * Перед этим печатает накопленные в буфере данные, чтобы сохранить порядок вывода.
+     * Канал нельзя закрывать: вместе с ним закроется стандартный поток вывода.
+     *
+     * @return канал вывода консоли
+     * @throws IOException если накопленные данные не удалось напечатать
+     */
+    public WritableByteChannel getChannel() throws IOException {
+        outputStream.drain();
+        return channel;
+    }
+
+    /**
+     * Печатает накопленные данные после выполнения pipeline-а, если этого требует политика сброса.
+     * Ошибки записи игнорируются.
      */
     public void flush() {
-        String content = buffer.toString();
-        if (!content.contentEquals(""))
-            System.out.println(content);
-        buffer.setLength(0);
+        try {
+            outputStream.flushPipeline();
+        } catch (IOException ignored) {
+            // клиент сессии отключился: сессия завершится при чтении следующей команды
+        }
+    }
+
+    /**
+     * Печатает все накопленные данные независимо от политики сброса.
+     *
+     * @throws IOException если данные не удалось записать
+     */
+    public void drain() throws IOException {
+        outputStream.drain();
+        errorStream.drain();
+    }
+
+    private static WritableByteChannel channelOf(OutputStream stream) {
+        return stream instanceof FileOutputStream
+            ? ((FileOutputStream) stream).getChannel()
+            : Channels.newChannel(stream);
+    }
+
+    private static OutputStream flushableOf(OutputStream stream) {
+        return stream instanceof FileOutputStream ? null : stream;
     }
 }
@@ -1,25 +1,51 @@
 package ru.itmo.se.cli.environment;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+
 /**
  * Класс дескриптора для взаимодействия с консолью ввода-вывода.
  *
  * @author Sergey Sokolvyak on 27.02.2021
  */
 public class ConsoleDescriptor implements Descriptor {
+    private final Console console;
+
+    /**
+     * Конструктор дескриптора.
+     *
+     * @param console консоль сессии
+     */
+    public ConsoleDescriptor(Console console) {
+        this.console = console;
+    }
+
+    /**
+     * Возвращает пустой поток: у первой команды pipeline-а нет входных данных.
+     *
+     * @return пустой поток ввода
+     */
+    @Override
+    public InputStream getInputStream() {
+        return InputStream.nullInputStream();
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
-    public String readFromSource() {
-        return Console.getInstance().readFromBuffer();
+    public OutputStream getOutputStream() {
+        return console.getOutputStream();
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void writeToDestination(String input) {
-        Console.getInstance().writeToBuffer(input);
+    public WritableByteChannel getOutputChannel() throws IOException {
+        return console.getChannel();
     }
 
     /**
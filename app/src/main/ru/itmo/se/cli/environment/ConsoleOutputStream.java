@@ -0,0 +1,150 @@
+package ru.itmo.se.cli.environment;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Буферизованный поток вывода консоли. Данные накапливаются в переиспользуемом буфере и записываются
+ * в канал в соответствии с политикой сброса; для файловых каналов буфер выделяется вне кучи,
+ * чтобы запись в канал обходилась без дополнительного копирования.
+ * Вызов {@link #flush()} командами также подчиняется политике, а {@link #drain()} печатает данные всегда.
+ * При политике {@link FlushPolicy#BUFFER} данные, пролежавшие в буфере {@link #FLUSH_INTERVAL_MILLIS} мс,
+ * печатает общий daemon-поток, поэтому вывод не задерживается, даже если команда перестала писать.
+ * Закрытие потока лишь сбрасывает его буфер.
+ *
+ * @author Sergey Sokolvyak
+ */
+final class ConsoleOutputStream extends OutputStream {
+    static final long FLUSH_INTERVAL_MILLIS = 100;
+
+    private final WritableByteChannel channel;
+    private final Flushable sink;
+    private final ByteBuffer buffer;
+    private final FlushPolicy flushPolicy;
+    private boolean isDrainScheduled;
+
+    /**
+     * Конструктор потока.
+     *
+     * @param channel     канал, в который записываются данные
+     * @param sink        поток, который нужно сбросить после записи в канал, или null
+     * @param capacity    размер буфера в байтах
+     * @param flushPolicy политика сброса буфера
+     */
+    ConsoleOutputStream(WritableByteChannel channel, Flushable sink, int capacity, FlushPolicy flushPolicy) {
+        this.channel = channel;
+        this.sink = sink;
+        this.buffer = channel instanceof FileChannel
+            ? ByteBuffer.allocateDirect(capacity)
+            : ByteBuffer.allocate(capacity);
+        this.flushPolicy = flushPolicy;
+    }
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+        if (!buffer.hasRemaining())
+            drain();
+        buffer.put((byte) b);
+        if (flushPolicy == FlushPolicy.LINE && b == '\n')
+            drain();
+        scheduleDrain();
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        int written = 0;
+        while (written < len) {
+            if (!buffer.hasRemaining())
+                drain();
+            int chunk = Math.min(buffer.remaining(), len - written);
+            buffer.put(b, off + written, chunk);
+            written += chunk;
+        }
+        if (flushPolicy == FlushPolicy.LINE && containsLineBreak(b, off, len))
+            drain();
+        scheduleDrain();
+    }
+
+    /**
+     * Сбрасывает буфер, если этого требует политика: только при {@link FlushPolicy#LINE}.
+     * При {@link FlushPolicy#BUFFER} буфер будет сброшен по истечении интервала.
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        if (flushPolicy == FlushPolicy.LINE)
+            drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    /**
+     * Сбрасывает буфер в конце pipeline-а: у всех политик, кроме {@link FlushPolicy#DEFERRED}.
+     *
+     * @throws IOException если данные не удалось записать
+     */
+    synchronized void flushPipeline() throws IOException {
+        if (flushPolicy != FlushPolicy.DEFERRED)
+            drain();
+    }
+
+    /**
+     * Записывает в канал все накопленные данные независимо от политики.
+     *
+     * @throws IOException если данные не удалось записать
+     */
+    synchronized void drain() throws IOException {
+        if (buffer.position() > 0) {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+            } finally {
+                buffer.clear();
+            }
+        }
+        if (sink != null)
+            sink.flush();
+    }
+
+    private void scheduleDrain() {
+        if (flushPolicy != FlushPolicy.BUFFER || isDrainScheduled || buffer.position() == 0)
+            return;
+        isDrainScheduled = true;
+        DrainTimerHolder.TIMER.schedule(this::drainIdle, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void drainIdle() {
+        isDrainScheduled = false;
+        try {
+            drain();
+        } catch (IOException ignored) {
+            // ошибка повторится при следующей записи и будет получена командой
+        }
+    }
+
+    private static boolean containsLineBreak(byte[] b, int off, int len) {
+        for (int i = off + len - 1; i >= off; i--) {
+            if (b[i] == '\n')
+                return true;
+        }
+        return false;
+    }
+
+    private static final class DrainTimerHolder {
+        private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "console-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -1,33 +1,27 @@
 package ru.itmo.se.cli.environment;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Класс контекста для хранения переменных, созданных пользователем.
- * После окончания текущей сессии контекст очищается.
+ * У каждой сессии интерпретатора свой контекст; после окончания сессии контекст очищается.
+ * Переменные хранятся в неизменяемом отображении со структурным разделением, поэтому снимок
+ * контекста создается за O(1), а изменения снимка и исходного контекста не видны друг другу.
  *
  * @author Sergey Sokolvyak
  */
 public final class Context {
-    private final Map<String, String> context;
-
-    private static class ContextHolder {
-        public static final Context HOLDER_INSTANCE = new Context();
-    }
-
-    private Context() {
-        context = new HashMap<>();
-    }
+    private final AtomicReference<PersistentMap<String, String>> variables;
 
     /**
-     * Возвращает единственный экземляр контекста.
-     *
-     * @return единственный экземпляр контекста
-     * @see Context
+     * Конструктор пустого контекста.
      */
-    public static Context getInstance() {
-        return ContextHolder.HOLDER_INSTANCE;
+    public Context() {
+        this(PersistentMap.empty());
+    }
+
+    private Context(PersistentMap<String, String> variables) {
+        this.variables = new AtomicReference<>(variables);
     }
 
     /**
@@ -38,7 +32,8 @@ public final class Context {
      * @return значение переменной
      */
     public String getVariable(String name) {
-        return context.getOrDefault(name, "");
+        String value = variables.get().get(name);
+        return value == null ? "" : value;
     }
 
     /**
@@ -48,13 +43,23 @@ public final class Context {
      * @param value значения переменной
      */
     public void setOrAddVariable(String name, String value) {
-        context.put(name, value);
+        variables.updateAndGet(current -> current.put(name, value));
+    }
+
+    /**
+     * Создает дочерний контекст, содержащий текущие переменные. Снимок создается за O(1);
+     * изменения дочернего контекста не видны в исходном, и наоборот.
+     *
+     * @return снимок контекста
+     */
+    public Context snapshot() {
+        return new Context(variables.get());
     }
 
     /**
      * Очищает контекст.
      */
     public void reset() {
-        context.clear();
+        variables.set(PersistentMap.empty());
     }
 }
@@ -0,0 +1,144 @@
+package ru.itmo.se.cli.environment;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Дескриптор, считающий байты, прочитанные из другого дескриптора и записанные в него.
+ * Ввод и вывод команды могут обслуживаться разными потоками (например, у внешней команды),
+ * поэтому счетчики потокобезопасны. Запись в канал вывода не может использовать
+ * {@link java.nio.channels.FileChannel#transferTo} напрямую и идет через промежуточный буфер.
+ *
+ * @author Sergey Sokolvyak
+ */
+public final class CountingDescriptor implements Descriptor {
+    private final Descriptor descriptor;
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private InputStream inputStream;
+    private OutputStream outputStream;
+
+    /**
+     * Конструктор дескриптора.
+     *
+     * @param descriptor дескриптор, обмен данными с которым подсчитывается
+     */
+    public CountingDescriptor(Descriptor descriptor) {
+        this.descriptor = descriptor;
+    }
+
+    /**
+     * Возвращает число байт, прочитанных из дескриптора.
+     *
+     * @return число прочитанных байт
+     */
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    /**
+     * Возвращает число байт, записанных в дескриптор.
+     *
+     * @return число записанных байт
+     */
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized InputStream getInputStream() {
+        if (inputStream == null) {
+            inputStream = new FilterInputStream(descriptor.getInputStream()) {
+                @Override
+                public int read() throws IOException {
+                    int result = super.read();
+                    if (result != -1)
+                        bytesRead.increment();
+                    return result;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int result = in.read(b, off, len);
+                    if (result > 0)
+                        bytesRead.add(result);
+                    return result;
+                }
+
+                @Override
+                public long skip(long n) throws IOException {
+                    long result = super.skip(n);
+                    bytesRead.add(result);
+                    return result;
+                }
+            };
+        }
+        return inputStream;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized OutputStream getOutputStream() {
+        if (outputStream == null) {
+            outputStream = new FilterOutputStream(descriptor.getOutputStream()) {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    bytesWritten.increment();
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    bytesWritten.add(len);
+                }
+            };
+        }
+        return outputStream;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public WritableByteChannel getOutputChannel() throws IOException {
+        WritableByteChannel channel = descriptor.getOutputChannel();
+        return new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                int written = channel.write(src);
+                bytesWritten.add(written);
+                return written;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return channel.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                channel.close();
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DescriptorType getType() {
+        return descriptor.getType();
+    }
+}
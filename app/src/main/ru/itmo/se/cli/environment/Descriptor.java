@@ -1,7 +1,15 @@
 package ru.itmo.se.cli.environment;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
 /**
  * Интерфейс дескриптора ввода-вывода.
+ * Данные передаются потоком байт, поэтому команда не обязана держать весь свой вывод в памяти.
+ * Закрытием потоков дескриптора управляет исполнитель pipeline-а, а не команда.
  *
  * @author Sergey Sokolvyak
  */
@@ -10,22 +18,33 @@ public interface Descriptor {
      * Перечисление, содержащее допустимые типы дескриптора.
      */
     enum DescriptorType {
-        File, Console
+        File, Console, Pipe
     }
 
     /**
-     * Читает данные из источника.
+     * Возвращает поток, из которого читаются данные источника.
+     *
+     * @return поток ввода
+     */
+    InputStream getInputStream();
+
+    /**
+     * Возвращает поток, в который записываются данные.
      *
-     * @return строковое представление данных из источника
+     * @return поток вывода
      */
-    String readFromSource();
+    OutputStream getOutputStream();
 
     /**
-     * Записывает данные в источник, стирая прошлое содержимое.
+     * Возвращает канал, в который записываются данные. Канал пишет в тот же поток,
+     * что и {@link #getOutputStream()}, и, как и поток, не закрывается командой.
      *
-     * @param input строковое представление данных, которые будут записаны
+     * @return канал вывода
+     * @throws IOException если канал не удалось подготовить к записи
      */
-    void writeToDestination(String input);
+    default WritableByteChannel getOutputChannel() throws IOException {
+        return Channels.newChannel(getOutputStream());
+    }
 
     /**
      * Возвращает тип дескриптора.
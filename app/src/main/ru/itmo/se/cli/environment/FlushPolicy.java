@@ -0,0 +1,59 @@
+package ru.itmo.se.cli.environment;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+
+/**
+ * Политика сброса буфера вывода консоли.
+ *
+ * @author Sergey Sokolvyak
+ */
+public enum FlushPolicy {
+    /**
+     * Вывод печатается после каждой строки и после каждого pipeline-а. Подходит для терминала.
+     */
+    LINE,
+    /**
+     * Вывод печатается при заполнении буфера, после каждого pipeline-а, а также через
+     * {@link ConsoleOutputStream#FLUSH_INTERVAL_MILLIS} мс после записи, даже если команда больше не пишет.
+     * Подходит для вывода в канал или файл.
+     */
+    BUFFER,
+    /**
+     * Вывод печатается только при заполнении буфера и при вызове {@link Console#drain()}. Подходит для скриптов.
+     */
+    DEFERRED;
+
+    /**
+     * Имя системного свойства, задающего политику для стандартного потока вывода: {@code line} или {@code buffer}.
+     */
+    public static final String FLUSH_PROPERTY = "cli.flush";
+
+    /**
+     * Выбирает политику для стандартного потока вывода процесса: значение свойства {@value #FLUSH_PROPERTY},
+     * если оно задано, иначе {@link #LINE} для терминала и {@link #BUFFER} для канала или файла.
+     *
+     * @return политика сброса стандартного потока вывода
+     */
+    public static FlushPolicy forStandardOutput() {
+        String requested = System.getProperty(FLUSH_PROPERTY, "").trim().toUpperCase(Locale.ROOT);
+        if (requested.equals(LINE.name()) || requested.equals(BUFFER.name()))
+            return valueOf(requested);
+        return isTerminal() ? LINE : BUFFER;
+    }
+
+    private static boolean isTerminal() {
+        java.io.Console console = System.console();
+        if (console == null)
+            return false;
+        try {
+            // начиная с Java 22 System.console() не равен null и без терминала
+            Method isTerminal = java.io.Console.class.getMethod("isTerminal");
+            return (boolean) isTerminal.invoke(console);
+        } catch (NoSuchMethodException e) {
+            return true;
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+}
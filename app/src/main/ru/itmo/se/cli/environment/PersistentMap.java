@@ -0,0 +1,229 @@
+package ru.itmo.se.cli.environment;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Неизменяемое ассоциативное отображение со структурным разделением (hash array mapped trie).
+ * Добавление возвращает новое отображение, которое разделяет с исходным все неизмененные узлы,
+ * поэтому копирование отображения бесплатно, а изменение стоит O(log32 n).
+ *
+ * @param <K> тип ключей
+ * @param <V> тип значений
+ * @author Sergey Sokolvyak
+ */
+final class PersistentMap<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0);
+
+    private final Node<K, V> root;
+    private final int size;
+
+    private PersistentMap(Node<K, V> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Возвращает пустое отображение.
+     *
+     * @param <K> тип ключей
+     * @param <V> тип значений
+     * @return пустое отображение
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Возвращает значение по ключу.
+     *
+     * @param key ключ
+     * @return значение или null, если ключа нет в отображении
+     */
+    V get(K key) {
+        return root == null ? null : root.get(key, spread(key.hashCode()), 0);
+    }
+
+    /**
+     * Возвращает отображение, в котором ключу сопоставлено переданное значение.
+     *
+     * @param key   ключ
+     * @param value значение
+     * @return новое отображение; исходное отображение не изменяется
+     */
+    PersistentMap<K, V> put(K key, V value) {
+        int hash = spread(key.hashCode());
+        if (root == null)
+            return new PersistentMap<>(new Leaf<>(hash, key, value), 1);
+
+        var isAdded = new boolean[1];
+        Node<K, V> newRoot = root.put(key, value, hash, 0, isAdded);
+        return newRoot == root ? this : new PersistentMap<>(newRoot, isAdded[0] ? size + 1 : size);
+    }
+
+    /**
+     * Возвращает количество ключей в отображении.
+     *
+     * @return количество ключей
+     */
+    int size() {
+        return size;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> Integer.SIZE / 2);
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    private static <T> T[] array(T... items) {
+        return items;
+    }
+
+    private interface Node<K, V> {
+        V get(K key, int hash, int shift);
+
+        Node<K, V> put(K key, V value, int hash, int shift, boolean[] isAdded);
+    }
+
+    /**
+     * Узел, в поддереве которого все ключи имеют одинаковый хэш.
+     *
+     * @param <K> тип ключей
+     * @param <V> тип значений
+     */
+    private abstract static class HashedNode<K, V> implements Node<K, V> {
+        protected final int hash;
+
+        protected HashedNode(int hash) {
+            this.hash = hash;
+        }
+
+        protected Node<K, V> withSibling(Leaf<K, V> leaf, int shift) {
+            return BitmapNode.of(this, hash, leaf, leaf.hash, shift);
+        }
+    }
+
+    private static final class Leaf<K, V> extends HashedNode<K, V> {
+        private final K key;
+        private final V value;
+
+        private Leaf(int hash, K key, V value) {
+            super(hash);
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public V get(K key, int hash, int shift) {
+            return this.hash == hash && this.key.equals(key) ? value : null;
+        }
+
+        @Override
+        public Node<K, V> put(K key, V value, int hash, int shift, boolean[] isAdded) {
+            if (this.hash == hash && this.key.equals(key))
+                return Objects.equals(this.value, value) ? this : new Leaf<>(hash, key, value);
+
+            isAdded[0] = true;
+            var leaf = new Leaf<>(hash, key, value);
+            if (this.hash == hash)
+                return new CollisionNode<>(hash, array(this, leaf));
+            return withSibling(leaf, shift);
+        }
+    }
+
+    private static final class CollisionNode<K, V> extends HashedNode<K, V> {
+        private final Leaf<K, V>[] leaves;
+
+        private CollisionNode(int hash, Leaf<K, V>[] leaves) {
+            super(hash);
+            this.leaves = leaves;
+        }
+
+        @Override
+        public V get(K key, int hash, int shift) {
+            for (Leaf<K, V> leaf : leaves) {
+                if (leaf.key.equals(key))
+                    return leaf.value;
+            }
+            return null;
+        }
+
+        @Override
+        public Node<K, V> put(K key, V value, int hash, int shift, boolean[] isAdded) {
+            var leaf = new Leaf<>(hash, key, value);
+            if (this.hash != hash) {
+                isAdded[0] = true;
+                return withSibling(leaf, shift);
+            }
+
+            for (int i = 0; i < leaves.length; i++) {
+                if (leaves[i].key.equals(key)) {
+                    if (Objects.equals(leaves[i].value, value))
+                        return this;
+                    Leaf<K, V>[] newLeaves = leaves.clone();
+                    newLeaves[i] = leaf;
+                    return new CollisionNode<>(hash, newLeaves);
+                }
+            }
+            isAdded[0] = true;
+            Leaf<K, V>[] newLeaves = Arrays.copyOf(leaves, leaves.length + 1);
+            newLeaves[leaves.length] = leaf;
+            return new CollisionNode<>(hash, newLeaves);
+        }
+    }
+
+    private static final class BitmapNode<K, V> implements Node<K, V> {
+        private final int bitmap;
+        private final Node<K, V>[] children;
+
+        private BitmapNode(int bitmap, Node<K, V>[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+
+        private static <K, V> Node<K, V> of(Node<K, V> first, int firstHash, Node<K, V> second, int secondHash,
+                                            int shift) {
+            int firstIndex = (firstHash >>> shift) & MASK;
+            int secondIndex = (secondHash >>> shift) & MASK;
+            if (firstIndex == secondIndex)
+                return new BitmapNode<>(1 << firstIndex,
+                    array(of(first, firstHash, second, secondHash, shift + BITS)));
+            return firstIndex < secondIndex
+                ? new BitmapNode<>((1 << firstIndex) | (1 << secondIndex), array(first, second))
+                : new BitmapNode<>((1 << firstIndex) | (1 << secondIndex), array(second, first));
+        }
+
+        @Override
+        public V get(K key, int hash, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0)
+                return null;
+            return children[Integer.bitCount(bitmap & (bit - 1))].get(key, hash, shift + BITS);
+        }
+
+        @Override
+        public Node<K, V> put(K key, V value, int hash, int shift, boolean[] isAdded) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) == 0) {
+                isAdded[0] = true;
+                Node<K, V>[] newChildren = Arrays.copyOf(children, children.length + 1);
+                System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+                newChildren[index] = new Leaf<>(hash, key, value);
+                return new BitmapNode<>(bitmap | bit, newChildren);
+            }
+
+            Node<K, V> child = children[index];
+            Node<K, V> newChild = child.put(key, value, hash, shift + BITS, isAdded);
+            if (newChild == child)
+                return this;
+            Node<K, V>[] newChildren = children.clone();
+            newChildren[index] = newChild;
+            return new BitmapNode<>(bitmap, newChildren);
+        }
+    }
+}
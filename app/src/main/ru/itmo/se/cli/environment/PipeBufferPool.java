@@ -0,0 +1,77 @@
+package ru.itmo.se.cli.environment;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Пул буферов вне кучи, в которых хранятся данные каналов между командами pipeline-а.
+ * Выделение прямого буфера дороже выделения массива, поэтому буфер закрытого канала
+ * возвращается в пул и используется следующим каналом того же размера.
+ * Для каждого размера хранится не больше {@link #MAX_IDLE_BUFFERS} свободных буферов,
+ * остальные освобождает сборщик мусора.
+ *
+ * @author Sergey Sokolvyak
+ */
+public final class PipeBufferPool {
+    /**
+     * Наибольшее число свободных буферов одного размера, хранимых в пуле.
+     */
+    public static final int MAX_IDLE_BUFFERS = 16;
+
+    private final Map<Integer, ArrayDeque<ByteBuffer>> idleBuffers = new HashMap<>();
+
+    private PipeBufferPool() {
+    }
+
+    /**
+     * Возвращает единственный экземпляр пула.
+     *
+     * @return пул буферов
+     */
+    public static PipeBufferPool getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Возвращает очищенный прямой буфер заданного размера: свободный буфер из пула или новый.
+     *
+     * @param capacity размер буфера в байтах
+     * @return прямой буфер
+     */
+    public synchronized ByteBuffer acquire(int capacity) {
+        ArrayDeque<ByteBuffer> buffers = idleBuffers.get(capacity);
+        ByteBuffer buffer = buffers == null ? null : buffers.poll();
+        if (buffer == null)
+            return ByteBuffer.allocateDirect(capacity);
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Возвращает буфер в пул. После вызова буфер не должен использоваться.
+     *
+     * @param buffer буфер, полученный методом {@link #acquire(int)}
+     */
+    public synchronized void release(ByteBuffer buffer) {
+        ArrayDeque<ByteBuffer> buffers = idleBuffers.computeIfAbsent(buffer.capacity(), capacity -> new ArrayDeque<>());
+        if (buffers.size() < MAX_IDLE_BUFFERS)
+            buffers.push(buffer);
+    }
+
+    /**
+     * Возвращает число свободных буферов заданного размера.
+     *
+     * @param capacity размер буфера в байтах
+     * @return число буферов в пуле
+     */
+    public synchronized int getIdleCount(int capacity) {
+        ArrayDeque<ByteBuffer> buffers = idleBuffers.get(capacity);
+        return buffers == null ? 0 : buffers.size();
+    }
+
+    private static final class Holder {
+        private static final PipeBufferPool INSTANCE = new PipeBufferPool();
+    }
+}
@@ -0,0 +1,276 @@
+package ru.itmo.se.cli.environment;
+
+import ru.itmo.se.cli.trace.Span;
+import ru.itmo.se.cli.trace.Tracer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Класс дескриптора, соединяющего две одновременно выполняемые команды pipeline-а.
+ * Данные проходят через кольцевой буфер фиксированного размера вне кучи, взятый из {@link PipeBufferPool}:
+ * пишущая команда ждет, пока буфер заполнен, а читающая -- пока он пуст, поэтому быстрая команда
+ * не занимает память, опережая медленную. Когда закрыты обе стороны канала, буфер возвращается в пул.
+ * Если читающая сторона закрыта, запись завершается {@link BrokenPipeException}.
+ * Ожидания при включенной трассировке записываются как интервалы ввода-вывода {@link Tracer#waitSpan}.
+ *
+ * @author Sergey Sokolvyak
+ */
+public class PipeDescriptor implements Descriptor {
+    private final int capacity;
+    private ByteBuffer ring;
+    private int head;
+    private int size;
+    private boolean isWriterClosed;
+    private boolean isReaderClosed;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private final InputStream inputStream = new PipeInputStream();
+    private final OutputStream outputStream = new PipeOutputStream();
+    private final WritableByteChannel outputChannel = new PipeOutputChannel();
+
+    /**
+     * Конструктор дескриптора.
+     *
+     * @param capacity размер буфера канала в байтах
+     */
+    public PipeDescriptor(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Pipe capacity must be positive");
+        this.capacity = capacity;
+        this.ring = PipeBufferPool.getInstance().acquire(capacity);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    /**
+     * Возвращает канал, записывающий данные в буфер канала без промежуточного массива.
+     *
+     * @return канал вывода
+     */
+    @Override
+    public WritableByteChannel getOutputChannel() {
+        return outputChannel;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DescriptorType getType() {
+        return DescriptorType.Pipe;
+    }
+
+    private int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0)
+            return 0;
+        lock.lock();
+        try {
+            if (size == 0 && !isWriterClosed && !isReaderClosed) {
+                Span span = Tracer.waitSpan("pipe read wait");
+                try {
+                    while (size == 0 && !isWriterClosed && !isReaderClosed)
+                        notEmpty.await();
+                } finally {
+                    span.close();
+                }
+            }
+            if (isReaderClosed)
+                throw new IOException("Pipe is closed");
+            if (size == 0)
+                return -1;
+
+            int count = Math.min(len, size);
+            int firstPart = Math.min(count, capacity - head);
+            region(head, firstPart).get(b, off, firstPart);
+            region(0, count - firstPart).get(b, off + firstPart, count - firstPart);
+            head = (head + count) % capacity;
+            size -= count;
+            notFull.signal();
+            return count;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Pipe read was interrupted");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int write(ByteBuffer source) throws IOException {
+        int written = source.remaining();
+        int sourceLimit = source.limit();
+        lock.lock();
+        try {
+            while (source.hasRemaining()) {
+                if (size == capacity && !isReaderClosed && !isWriterClosed) {
+                    Span span = Tracer.waitSpan("pipe write wait");
+                    try {
+                        while (size == capacity && !isReaderClosed && !isWriterClosed)
+                            notFull.await();
+                    } finally {
+                        span.close();
+                    }
+                }
+                if (isReaderClosed)
+                    throw new BrokenPipeException("Broken pipe");
+                if (isWriterClosed)
+                    throw new IOException("Pipe is closed");
+
+                int count = Math.min(source.remaining(), capacity - size);
+                int tail = (head + size) % capacity;
+                int firstPart = Math.min(count, capacity - tail);
+                source.limit(source.position() + firstPart);
+                region(tail, firstPart).put(source);
+                source.limit(source.position() + count - firstPart);
+                region(0, count - firstPart).put(source);
+                source.limit(sourceLimit);
+                size += count;
+                notEmpty.signal();
+            }
+            return written;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Pipe write was interrupted");
+        } finally {
+            source.limit(sourceLimit);
+            lock.unlock();
+        }
+    }
+
+    private ByteBuffer region(int position, int length) {
+        ring.clear();
+        ring.position(position);
+        ring.limit(position + length);
+        return ring;
+    }
+
+    private int available() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeReader() {
+        lock.lock();
+        try {
+            isReaderClosed = true;
+            notFull.signalAll();
+            notEmpty.signalAll();
+            releaseIfClosed();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeWriter() {
+        lock.lock();
+        try {
+            isWriterClosed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+            releaseIfClosed();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseIfClosed() {
+        if (ring == null || !isReaderClosed || !isWriterClosed)
+            return;
+        PipeBufferPool.getInstance().release(ring);
+        ring = null;
+        size = 0;
+    }
+
+    private class PipeInputStream extends InputStream {
+        private final byte[] single = new byte[1];
+
+        @Override
+        public int read() throws IOException {
+            return PipeDescriptor.this.read(single, 0, 1) == -1 ? -1 : Byte.toUnsignedInt(single[0]);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return PipeDescriptor.this.read(b, off, len);
+        }
+
+        @Override
+        public int available() {
+            return PipeDescriptor.this.available();
+        }
+
+        @Override
+        public void close() {
+            closeReader();
+        }
+    }
+
+    private class PipeOutputStream extends OutputStream {
+        private final byte[] single = new byte[1];
+
+        @Override
+        public void write(int b) throws IOException {
+            single[0] = (byte) b;
+            PipeDescriptor.this.write(ByteBuffer.wrap(single));
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            PipeDescriptor.this.write(ByteBuffer.wrap(b, off, len));
+        }
+
+        @Override
+        public void close() {
+            closeWriter();
+        }
+    }
+
+    private class PipeOutputChannel implements WritableByteChannel {
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            return PipeDescriptor.this.write(source);
+        }
+
+        @Override
+        public boolean isOpen() {
+            lock.lock();
+            try {
+                return !isWriterClosed;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            closeWriter();
+        }
+    }
+}
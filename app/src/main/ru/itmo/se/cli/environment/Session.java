@@ -0,0 +1,78 @@
+package ru.itmo.se.cli.environment;
+
+/**
+ * Класс сессии интерпретатора: переменные пользователя, консоль, с которой работает сессия,
+ * и таблица путей к внешним командам.
+ * Несколько сессий могут одновременно выполняться в одной JVM, не влияя друг на друга.
+ *
+ * @author Sergey Sokolvyak
+ */
+public final class Session {
+    private final Context context;
+    private final Console console;
+    private final CommandHashTable commandHashTable;
+
+    /**
+     * Конструктор сессии.
+     *
+     * @param context контекст с переменными сессии
+     * @param console консоль сессии
+     */
+    public Session(Context context, Console console) {
+        this(context, console, new CommandHashTable());
+    }
+
+    private Session(Context context, Console console, CommandHashTable commandHashTable) {
+        this.context = context;
+        this.console = console;
+        this.commandHashTable = commandHashTable;
+    }
+
+    /**
+     * Создает сессию с пустым контекстом, работающую с консолью процесса.
+     *
+     * @return новая сессия
+     * @see Console#system()
+     */
+    public static Session system() {
+        return new Session(new Context(), Console.system());
+    }
+
+    /**
+     * Создает дочернюю сессию с той же консолью, таблицей путей к командам и снимком контекста:
+     * изменения переменных в дочерней сессии не видны в родительской.
+     *
+     * @return дочерняя сессия
+     * @see Context#snapshot()
+     */
+    public Session fork() {
+        return new Session(context.snapshot(), console, commandHashTable);
+    }
+
+    /**
+     * Возвращает контекст сессии.
+     *
+     * @return контекст сессии
+     */
+    public Context getContext() {
+        return context;
+    }
+
+    /**
+     * Возвращает консоль сессии.
+     *
+     * @return консоль сессии
+     */
+    public Console getConsole() {
+        return console;
+    }
+
+    /**
+     * Возвращает таблицу путей к внешним командам сессии.
+     *
+     * @return таблица путей к внешним командам
+     */
+    public CommandHashTable getCommandHashTable() {
+        return commandHashTable;
+    }
+}
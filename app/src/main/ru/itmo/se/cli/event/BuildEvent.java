@@ -0,0 +1,29 @@
+package ru.itmo.se.cli.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие JFR о сборке pipeline-а из токенов.
+ *
+ * @author Sergey Sokolvyak
+ */
+@Name("ru.itmo.se.cli.Build")
+@Label("Build Pipeline")
+@Category("Command Line Interpreter")
+@Description("Building of a pipeline from tokens")
+public final class BuildEvent extends Event {
+    @Label("Command Name")
+    @Description("Names of the pipeline commands separated by |")
+    public String commandName;
+
+    @Label("Argument Count")
+    @Description("Total number of arguments of the pipeline commands")
+    public int argumentCount;
+
+    @Label("Stage Count")
+    public int stageCount;
+}
@@ -0,0 +1,40 @@
+package ru.itmo.se.cli.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие JFR о выполнении команды pipeline-а. Записывается в потоке, в котором выполнялась команда.
+ *
+ * @author Sergey Sokolvyak
+ */
+@Name("ru.itmo.se.cli.Command")
+@Label("Command")
+@Category("Command Line Interpreter")
+@Description("Execution of a pipeline stage")
+public final class CommandEvent extends Event {
+    @Label("Command Name")
+    public String commandName;
+
+    @Label("Argument Count")
+    public int argumentCount;
+
+    @Label("Bytes Read")
+    @DataAmount
+    public long bytesRead;
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytesWritten;
+
+    @Label("Exit Code")
+    public int exitCode;
+
+    @Label("Failed")
+    @Description("Whether the command finished with an exception")
+    public boolean failed;
+}
@@ -0,0 +1,25 @@
+package ru.itmo.se.cli.event;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Вспомогательные методы для записи событий JFR интерпретатора.
+ * Первое создание события загружает и инициализирует JFR, что занимает сотни миллисекунд,
+ * поэтому события создаются только если JFR уже запущен (ключом {@code -XX:StartFlightRecording}
+ * или командой {@code jcmd <pid> JFR.start}). Сама проверка классы событий не загружает.
+ *
+ * @author Sergey Sokolvyak
+ */
+public final class Events {
+    private Events() {
+    }
+
+    /**
+     * Проверяет, запущен ли JFR в текущей JVM.
+     *
+     * @return true, если события интерпретатора могут быть записаны
+     */
+    public static boolean isRecording() {
+        return FlightRecorder.isInitialized();
+    }
+}
@@ -0,0 +1,45 @@
+package ru.itmo.se.cli.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие JFR о разборе командной строки.
+ *
+ * @author Sergey Sokolvyak
+ */
+@Name("ru.itmo.se.cli.Parse")
+@Label("Parse")
+@Category("Command Line Interpreter")
+@Description("Parsing and expansion of a command line")
+public final class ParseEvent extends Event {
+    @Label("Command Name")
+    @Description("First word of the command line")
+    public String commandName;
+
+    @Label("Argument Count")
+    @Description("Number of tokens after the first one, including pipes")
+    public int argumentCount;
+
+    @Label("Line Length")
+    public int lineLength;
+
+    @Label("Cached")
+    @Description("Whether the line was found in the parsed line cache")
+    public boolean cached;
+
+    @Label("Cache Hits")
+    @Description("Lines found in the parsed line cache since the parser was created")
+    public long cacheHits;
+
+    @Label("Cache Misses")
+    @Description("Lines parsed anew since the parser was created")
+    public long cacheMisses;
+
+    @Label("Cache Size")
+    @Description("Number of lines in the parsed line cache")
+    public int cacheSize;
+}
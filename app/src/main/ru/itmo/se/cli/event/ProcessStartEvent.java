@@ -0,0 +1,28 @@
+package ru.itmo.se.cli.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие JFR о запуске процессов внешней команды.
+ *
+ * @author Sergey Sokolvyak
+ */
+@Name("ru.itmo.se.cli.ProcessStart")
+@Label("Process Start")
+@Category("Command Line Interpreter")
+@Description("Spawning of external command processes")
+public final class ProcessStartEvent extends Event {
+    @Label("Command Name")
+    public String commandName;
+
+    @Label("Argument Count")
+    public int argumentCount;
+
+    @Label("Process Count")
+    @Description("Number of processes connected by operating system pipes")
+    public int processCount;
+}
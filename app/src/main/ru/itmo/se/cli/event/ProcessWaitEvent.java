@@ -0,0 +1,33 @@
+package ru.itmo.se.cli.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие JFR об ожидании завершения процессов внешней команды и передаче их вывода.
+ *
+ * @author Sergey Sokolvyak
+ */
+@Name("ru.itmo.se.cli.ProcessWait")
+@Label("Process Wait")
+@Category("Command Line Interpreter")
+@Description("Copying of external command output and waiting for its processes")
+public final class ProcessWaitEvent extends Event {
+    @Label("Command Name")
+    public String commandName;
+
+    @Label("Argument Count")
+    public int argumentCount;
+
+    @Label("Bytes Written")
+    @Description("Bytes copied from the last process to the command output")
+    @DataAmount
+    public long bytesWritten;
+
+    @Label("Exit Code")
+    public int exitCode;
+}
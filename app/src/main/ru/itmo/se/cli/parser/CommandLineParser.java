@@ -1,5 +1,7 @@
 package ru.itmo.se.cli.parser;
 
+import ru.itmo.se.cli.environment.Context;
+
 import java.util.List;
 
 /**
@@ -8,12 +10,19 @@ import java.util.List;
  * @author Sergey Sokolvyak on 04.03.2021
  */
 public interface CommandLineParser {
+    /**
+     * Ключевое слово, которое может стоять в начале строки перед pipeline-ом. Следующий за ним токен
+     * разбирается как начало команды, поэтому он может быть и командой, и объявлением переменной.
+     */
+    String TIME_KEYWORD = "time";
+
     /**
      * Выполняет разбор входной строки на токены.
      *
-     * @param input входная строка
+     * @param input   входная строка
+     * @param context контекст с переменными, значения которых подставляются в токены
      * @return список токенов
      * @see Token
      */
-    List<Token> parse(String input);
+    List<Token> parse(String input, Context context);
 }
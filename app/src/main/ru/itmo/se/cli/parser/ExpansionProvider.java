@@ -2,51 +2,51 @@ package ru.itmo.se.cli.parser;
 
 import ru.itmo.se.cli.environment.Context;
 
-import java.util.Objects;
-import java.util.regex.Pattern;
-
 /**
  * Класс, отвечающий за подстановку переменных.
+ * Шаблоны подстановок хранятся в токенах разобранных строк, поэтому повторяющиеся
+ * командные строки разбираются только один раз благодаря {@link ParsedLineCache}.
  *
  * @author Sergey Sokolvyak on 26.02.2021
  */
 public class ExpansionProvider {
-    private static final String SUBSTITUTION_PATTERN = "(\\$[a-zA-Z_]\\w*)|(\\$\\{[a-zA-Z_]\\w*})";
-
     /**
      * Выполняет подстановку переменных в переданной строке.
      *
      * @param content строка, в которой необходимо осуществить подстановку переменной
+     * @param context контекст с переменными
      * @return строку с подставленными переменными
      */
-    public String expandString(String content) {
-        var pattern = Pattern.compile(SUBSTITUTION_PATTERN);
-        var matcher = pattern.matcher(content);
-        var sbWithExtendedContent = new StringBuilder();
-        String currentSubstitution;
-        while (matcher.find()) {
-            currentSubstitution = Objects.nonNull(matcher.group(1))
-                ? expandIdentifier(matcher.group(1), false)
-                : expandIdentifier(matcher.group(2), true);
-            matcher.appendReplacement(sbWithExtendedContent, currentSubstitution);
-        }
-        matcher.appendTail(sbWithExtendedContent);
-
-        String extendedContent = sbWithExtendedContent.toString();
-        if (extendedContent.contains("${"))
-            throw new ParsingException("Syntax error: bad substitution");
+    public String expandString(String content, Context context) {
+        if (content.indexOf('$') < 0)
+            return content;
 
-        return extendedContent;
+        var sbWithExtendedContent = new StringBuilder(content.length());
+        expandInto(content, context, sbWithExtendedContent);
+        return sbWithExtendedContent.toString();
     }
 
-    private String expandIdentifier(String substitution, boolean isBraceSubstitution) {
-        var identifier = isBraceSubstitution
-            ? substitution.substring(2, substitution.length() - 1)
-            : substitution.substring(1);
-
-        if (identifier.isBlank())
-            throw new ParsingException("Syntax error: bad substitution");
+    /**
+     * Выполняет подстановку переменных в переданной строке и дописывает результат в builder.
+     *
+     * @param content     строка, в которой необходимо осуществить подстановку переменной
+     * @param context     контекст с переменными
+     * @param destination builder, в который записывается результат
+     */
+    public void expandInto(String content, Context context, StringBuilder destination) {
+        if (content.indexOf('$') < 0)
+            destination.append(content);
+        else
+            compile(content).expandInto(destination, context);
+    }
 
-        return Context.getInstance().getVariable(identifier);
+    /**
+     * Возвращает разобранный шаблон строки.
+     *
+     * @param content строка, в которой необходимо осуществить подстановку переменных
+     * @return шаблон подстановки
+     */
+    ExpansionTemplate compile(String content) {
+        return content.indexOf('$') < 0 ? ExpansionTemplate.literal(content) : ExpansionTemplate.compile(content);
     }
 }
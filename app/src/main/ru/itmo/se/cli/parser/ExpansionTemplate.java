@@ -0,0 +1,126 @@
+package ru.itmo.se.cli.parser;
+
+import ru.itmo.se.cli.environment.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разобранная строка с подстановками: чередование неизменяемых фрагментов и имен переменных.
+ * Разбор выполняется один раз за проход по строке, без регулярных выражений, после чего
+ * шаблон можно многократно раскрывать с текущими значениями переменных.
+ *
+ * @author Sergey Sokolvyak
+ */
+final class ExpansionTemplate {
+    private final String[] literals;
+    private final String[] variables;
+
+    private ExpansionTemplate(String[] literals, String[] variables) {
+        this.literals = literals;
+        this.variables = variables;
+    }
+
+    /**
+     * Создает шаблон строки, в которой подстановки не выполняются.
+     *
+     * @param content строка
+     * @return шаблон строки
+     */
+    static ExpansionTemplate literal(String content) {
+        return new ExpansionTemplate(new String[]{content}, new String[0]);
+    }
+
+    /**
+     * Разбирает строку на фрагменты и подстановки вида {@code $identifier} и {@code ${identifier}}.
+     * Символ {@code $}, за которым не следует идентификатор, остается в строке без изменений.
+     *
+     * @param content строка с подстановками
+     * @return шаблон строки
+     * @throws ParsingException если подстановка в фигурных скобках записана некорректно
+     */
+    static ExpansionTemplate compile(String content) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int literalBegin = 0;
+        int current = content.indexOf('$');
+        while (current >= 0) {
+            int identifierBegin = current + 1;
+            boolean isBraceSubstitution = identifierBegin < content.length() && content.charAt(identifierBegin) == '{';
+            if (isBraceSubstitution)
+                identifierBegin++;
+
+            int identifierEnd = skipIdentifier(content, identifierBegin);
+            int substitutionEnd = identifierEnd;
+            if (isBraceSubstitution) {
+                if (identifierEnd == identifierBegin || identifierEnd == content.length()
+                    || content.charAt(identifierEnd) != '}')
+                    throw new ParsingException("Syntax error: bad substitution");
+                substitutionEnd++;
+            }
+
+            if (identifierEnd == identifierBegin) {
+                current = content.indexOf('$', current + 1);
+                continue;
+            }
+
+            literals.add(content.substring(literalBegin, current));
+            variables.add(content.substring(identifierBegin, identifierEnd));
+            literalBegin = substitutionEnd;
+            current = content.indexOf('$', substitutionEnd);
+        }
+        literals.add(content.substring(literalBegin));
+        return new ExpansionTemplate(literals.toArray(new String[0]), variables.toArray(new String[0]));
+    }
+
+    /**
+     * Дописывает в builder строку с подставленными значениями переменных.
+     * Значения переменных подставляются как есть, символы {@code $} и {@code \} в них не интерпретируются.
+     *
+     * @param destination builder, в который записывается результат
+     * @param context     контекст с переменными
+     */
+    void expandInto(StringBuilder destination, Context context) {
+        destination.append(literals[0]);
+        for (int i = 0; i < variables.length; i++) {
+            destination.append(context.getVariable(variables[i]));
+            destination.append(literals[i + 1]);
+        }
+    }
+
+    /**
+     * Проверяет, что в шаблоне нет подстановок.
+     *
+     * @return true, если раскрытие шаблона всегда дает одну и ту же строку
+     */
+    boolean isConstant() {
+        return variables.length == 0;
+    }
+
+    /**
+     * Возвращает строку шаблона без подстановок.
+     *
+     * @return строку шаблона
+     * @see #isConstant()
+     */
+    String getConstant() {
+        return literals[0];
+    }
+
+    static int skipIdentifier(String content, int begin) {
+        if (begin == content.length() || !isIdentifierStart(content.charAt(begin)))
+            return begin;
+        int end = begin + 1;
+        while (end < content.length() && isIdentifierPart(content.charAt(end)))
+            end++;
+        return end;
+    }
+
+    static boolean isIdentifierStart(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_';
+    }
+
+    static boolean isIdentifierPart(char c) {
+        return isIdentifierStart(c) || c >= '0' && c <= '9';
+    }
+}
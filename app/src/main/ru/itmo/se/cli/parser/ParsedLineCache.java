@@ -0,0 +1,98 @@
+package ru.itmo.se.cli.parser;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU-кэш разобранных командных строк. Хранит токены до подстановки переменных,
+ * поэтому повторный разбор строки сводится к подстановке текущих значений.
+ * Строки хранятся в {@link LinkedHashMap} в порядке обращения, поэтому и поиск, и вытеснение
+ * давно не использованной строки занимают O(1). Кэш разделяется сессиями и защищен блокировкой,
+ * которая удерживается только на время обращения к отображению.
+ *
+ * @author Sergey Sokolvyak
+ */
+public class ParsedLineCache {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final Map<String, List<RawToken>> lines;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final int capacity;
+
+    /**
+     * Конструктор кэша.
+     *
+     * @param capacity максимальное количество хранимых строк, 0 отключает кэширование
+     */
+    public ParsedLineCache(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Cache capacity must not be negative: " + capacity);
+        this.capacity = capacity;
+        this.lines = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<RawToken>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Возвращает количество строк, найденных в кэше.
+     *
+     * @return количество попаданий
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Возвращает количество строк, которые пришлось разобрать заново.
+     *
+     * @return количество промахов
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Возвращает количество строк в кэше.
+     *
+     * @return размер кэша
+     */
+    public synchronized int size() {
+        return lines.size();
+    }
+
+    /**
+     * Возвращает токены строки из кэша и учитывает попадание или промах.
+     *
+     * @param line командная строка
+     * @return токены до подстановки переменных или null, если строки нет в кэше
+     */
+    List<RawToken> get(String line) {
+        List<RawToken> rawTokens;
+        synchronized (this) {
+            rawTokens = lines.get(line);
+        }
+        (rawTokens == null ? misses : hits).incrementAndGet();
+        return rawTokens;
+    }
+
+    /**
+     * Сохраняет токены строки, вытесняя давно не использованные строки при переполнении.
+     *
+     * @param line      командная строка
+     * @param rawTokens токены до подстановки переменных
+     */
+    void put(String line, List<RawToken> rawTokens) {
+        if (capacity == 0)
+            return;
+        synchronized (this) {
+            lines.put(line, rawTokens);
+        }
+    }
+}
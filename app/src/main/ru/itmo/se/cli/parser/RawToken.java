@@ -0,0 +1,39 @@
+package ru.itmo.se.cli.parser;
+
+import ru.itmo.se.cli.environment.Context;
+
+/**
+ * Токен командной строки до подстановки переменных. Содержит фрагменты токена в исходном порядке,
+ * фрагменты в одинарных кавычках хранятся как шаблоны без подстановок.
+ *
+ * @author Sergey Sokolvyak
+ */
+final class RawToken {
+    static final RawToken PIPE = new RawToken(new ExpansionTemplate[0]);
+
+    private final ExpansionTemplate[] parts;
+
+    RawToken(ExpansionTemplate[] parts) {
+        this.parts = parts;
+    }
+
+    boolean isPipe() {
+        return this == PIPE;
+    }
+
+    /**
+     * Выполняет подстановку текущих значений переменных во все фрагменты токена.
+     *
+     * @param context контекст с переменными
+     * @return содержимое токена
+     */
+    String expand(Context context) {
+        if (parts.length == 1 && parts[0].isConstant())
+            return parts[0].getConstant();
+
+        var sbWithTokenContent = new StringBuilder();
+        for (ExpansionTemplate part : parts)
+            part.expandInto(sbWithTokenContent, context);
+        return sbWithTokenContent.toString();
+    }
+}
@@ -1,189 +1,296 @@
 package ru.itmo.se.cli.parser;
 
+import ru.itmo.se.cli.environment.Context;
+import ru.itmo.se.cli.event.Events;
+import ru.itmo.se.cli.event.ParseEvent;
+import ru.itmo.se.cli.trace.Span;
+import ru.itmo.se.cli.trace.Tracer;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 /**
- * Класс парсера входной строки.
+ * Класс парсера входной строки. Парсер не хранит состояние разбора между вызовами
+ * и может одновременно использоваться несколькими потоками. О каждом разборе записывается
+ * событие JFR {@link ParseEvent} и, если включена трассировка, интервалы разбора и подстановки.
  *
  * @author Sergey Sokolvyak
  */
 public class SimpleCommandLineParser implements CommandLineParser {
-    private static final String VAR_DECL_PATTERN = "^[a-zA-Z_]\\w*=.*$";
+    private static final int DEFAULT_CACHE_CAPACITY = 256;
+    private static final String TRACE_CATEGORY = "parser";
 
-    private String input;
-    private int beginIndex;
-    private int endIndex;
-    private Token.Type previousType;
     private final ExpansionProvider expansionProvider;
+    private final ParsedLineCache parsedLineCache;
 
     /**
-     * Конструктор парсера.
+     * Конструктор парсера с кэшем разобранных строк размера по умолчанию.
      *
      * @param expansionProvider выполняет подстановку переменных
      */
     public SimpleCommandLineParser(ExpansionProvider expansionProvider) {
+        this(expansionProvider, new ParsedLineCache(DEFAULT_CACHE_CAPACITY));
+    }
+
+    /**
+     * Конструктор парсера.
+     *
+     * @param expansionProvider выполняет подстановку переменных
+     * @param parsedLineCache   кэш разобранных строк
+     */
+    public SimpleCommandLineParser(ExpansionProvider expansionProvider, ParsedLineCache parsedLineCache) {
         this.expansionProvider = expansionProvider;
+        this.parsedLineCache = parsedLineCache;
+    }
+
+    /**
+     * Возвращает кэш разобранных строк.
+     *
+     * @return кэш разобранных строк
+     */
+    public ParsedLineCache getParsedLineCache() {
+        return parsedLineCache;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public List<Token> parse(String input) {
-        this.input = input.trim();
-        List<Token> tokens = new ArrayList<>();
-        previousType = Token.Type.Pipe;
+    public List<Token> parse(String input, Context context) {
+        ParseEvent event = null;
+        if (Events.isRecording()) {
+            event = new ParseEvent();
+            event.begin();
+        }
+        String line = input.trim();
+        List<RawToken> rawTokens;
+        boolean cached;
+        try (Span span = Tracer.span(TRACE_CATEGORY, "parse")) {
+            rawTokens = parsedLineCache.get(line);
+            cached = rawTokens != null;
+            if (!cached) {
+                rawTokens = tokenize(line);
+                parsedLineCache.put(line, rawTokens);
+            }
+            span.setArgument("cached", cached)
+                .setArgument("cacheHits", parsedLineCache.getHitCount())
+                .setArgument("cacheMisses", parsedLineCache.getMissCount());
+        }
+        List<Token> tokens;
+        Span expandSpan = Tracer.span(TRACE_CATEGORY, "expand");
+        try {
+            tokens = expand(rawTokens, context);
+        } finally {
+            expandSpan.close();
+        }
+        if (event != null && event.shouldCommit()) {
+            event.commandName = tokens.isEmpty() ? "" : tokens.get(0).getContent();
+            event.argumentCount = Math.max(tokens.size() - 1, 0);
+            event.lineLength = line.length();
+            event.cached = cached;
+            event.cacheHits = parsedLineCache.getHitCount();
+            event.cacheMisses = parsedLineCache.getMissCount();
+            event.cacheSize = parsedLineCache.size();
+            event.commit();
+        }
+        return tokens;
+    }
+
+    private List<RawToken> tokenize(String line) {
+        var cursor = new Cursor(line);
+        List<RawToken> rawTokens = new ArrayList<>();
+        while (cursor.hasNextToken())
+            rawTokens.add(getToken(cursor));
+        return List.copyOf(rawTokens);
+    }
+
+    private static List<Token> expand(List<RawToken> rawTokens, Context context) {
+        List<Token> tokens = new ArrayList<>(rawTokens.size());
+        Token.Type previousType = Token.Type.Pipe;
         Token currentToken;
-        while (hasNextToken()) {
-            currentToken = getToken();
+        for (RawToken rawToken : rawTokens) {
+            if (rawToken.isPipe()) {
+                currentToken = new Token("|", Token.Type.Pipe);
+            } else {
+                String tokenContent = rawToken.expand(context);
+                Token.Type type = Token.Type.Arg;
+                if (previousType == Token.Type.Pipe || previousType == Token.Type.VarDecl) {
+                    if (isVariableDeclaration(tokenContent)) {
+                        type = Token.Type.VarDecl;
+                    } else {
+                        type = Token.Type.Command;
+                    }
+                }
+                currentToken = new Token(tokenContent, type);
+            }
+
             if (previousType == Token.Type.VarDecl && currentToken.getType() == Token.Type.Command)
                 tokens.add(new Token("|", Token.Type.Pipe));
             tokens.add(currentToken);
-            previousType = currentToken.getType();
+            previousType = isTimeKeyword(tokens) ? Token.Type.Pipe : currentToken.getType();
         }
-        reset();
         return tokens;
     }
 
-    private Token getToken() throws ParsingException {
-        skipSpaces();
+    private static boolean isTimeKeyword(List<Token> tokens) {
+        return tokens.size() == 1 && tokens.get(0).getType() == Token.Type.Command
+            && tokens.get(0).getContent().equals(TIME_KEYWORD);
+    }
+
+    private RawToken getToken(Cursor cursor) throws ParsingException {
+        skipSpaces(cursor);
 
-        if (isPipeChar()) {
-            return new Token("|", Token.Type.Pipe);
+        if (isPipeChar(cursor)) {
+            return RawToken.PIPE;
         }
 
-        var sbWithTokenContent = new StringBuilder();
+        List<ExpansionTemplate> parts = new ArrayList<>();
         Optional<String> currentParsed;
-        while (beginIndex < input.length() && input.charAt(beginIndex) != ' ' && input.charAt(beginIndex) != '|') {
-            currentParsed = tryTokenizeNotQuoted();
+        while (cursor.hasNextToken() && !cursor.isTokenEnd()) {
+            currentParsed = tryTokenizeNotQuoted(cursor);
             if (currentParsed.isPresent()) {
-                sbWithTokenContent.append(expansionProvider.expandString(currentParsed.get()));
+                parts.add(expansionProvider.compile(currentParsed.get()));
                 continue;
             }
 
-            currentParsed = tryTokenizeFullQuoted();
+            currentParsed = tryTokenizeFullQuoted(cursor);
             if (currentParsed.isPresent()) {
-                sbWithTokenContent.append(expansionProvider.expandString(currentParsed.get()));
+                parts.add(expansionProvider.compile(currentParsed.get()));
                 continue;
             }
 
-            currentParsed = tryTokenizeWeakQuoted();
-            currentParsed.ifPresent(sbWithTokenContent::append);
+            currentParsed = tryTokenizeWeakQuoted(cursor);
+            currentParsed.map(ExpansionTemplate::literal).ifPresent(parts::add);
         }
 
-        String tokenContent = sbWithTokenContent.toString();
-        Token.Type type = Token.Type.Arg;
-        if (previousType == Token.Type.Pipe || previousType == Token.Type.VarDecl) {
-            if (tokenContent.matches(VAR_DECL_PATTERN)) {
-                type = Token.Type.VarDecl;
-            } else {
-                type = Token.Type.Command;
-            }
-        }
+        return new RawToken(parts.toArray(new ExpansionTemplate[0]));
+    }
 
-        return new Token(tokenContent, type);
+    /**
+     * Проверяет, что токен является объявлением переменной вида {@code identifier=value}.
+     *
+     * @param tokenContent содержимое токена
+     * @return true, если токен объявляет переменную
+     */
+    private static boolean isVariableDeclaration(String tokenContent) {
+        int identifierEnd = ExpansionTemplate.skipIdentifier(tokenContent, 0);
+        if (identifierEnd == 0 || identifierEnd == tokenContent.length() || tokenContent.charAt(identifierEnd) != '=')
+            return false;
+        for (int i = identifierEnd + 1; i < tokenContent.length(); i++) {
+            char c = tokenContent.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029')
+                return false;
+        }
+        return true;
     }
 
-    private void skipSpaces() {
-        while (input.charAt(beginIndex) == ' ') {
-            beginIndex++;
-            endIndex++;
+    private static void skipSpaces(Cursor cursor) {
+        while (cursor.input.charAt(cursor.beginIndex) == ' ') {
+            cursor.beginIndex++;
+            cursor.endIndex++;
         }
     }
 
-    private boolean isPipeChar() {
-        if (input.charAt(beginIndex) == '|') {
-            beginIndex++;
-            endIndex++;
+    private static boolean isPipeChar(Cursor cursor) {
+        if (cursor.input.charAt(cursor.beginIndex) == '|') {
+            cursor.beginIndex++;
+            cursor.endIndex++;
             return true;
         }
         return false;
     }
 
-    private Optional<String> tryTokenizeFullQuoted() {
-        if (input.charAt(beginIndex) != '\"') {
+    private static Optional<String> tryTokenizeFullQuoted(Cursor cursor) {
+        if (cursor.input.charAt(cursor.beginIndex) != '\"') {
             return Optional.empty();
         }
 
         boolean foundClosingQuote = false;
-        while (++endIndex < input.length()) {
-            if (input.charAt(endIndex) == '\"') {
+        while (++cursor.endIndex < cursor.input.length()) {
+            if (cursor.input.charAt(cursor.endIndex) == '\"') {
                 foundClosingQuote = true;
-                endIndex++;
+                cursor.endIndex++;
                 break;
             }
         }
 
         if (!foundClosingQuote) {
-            reset();
             throw new ParsingException("Syntax error: unexpected token \"");
         }
 
-        Optional<String> result = Optional.of(input.substring(beginIndex + 1, endIndex - 1));
-        beginIndex = endIndex;
+        Optional<String> result = Optional.of(cursor.input.substring(cursor.beginIndex + 1, cursor.endIndex - 1));
+        cursor.beginIndex = cursor.endIndex;
         return result;
     }
 
-    private Optional<String> tryTokenizeWeakQuoted() {
-        if (input.charAt(beginIndex) != '\'') {
+    private static Optional<String> tryTokenizeWeakQuoted(Cursor cursor) {
+        if (cursor.input.charAt(cursor.beginIndex) != '\'') {
             return Optional.empty();
         }
 
         boolean foundClosingQuote = false;
-        while (++endIndex < input.length()) {
-            if (input.charAt(endIndex) == '\'') {
+        while (++cursor.endIndex < cursor.input.length()) {
+            if (cursor.input.charAt(cursor.endIndex) == '\'') {
                 foundClosingQuote = true;
-                endIndex++;
+                cursor.endIndex++;
                 break;
             }
         }
 
         if (!foundClosingQuote) {
-            reset();
             throw new ParsingException("Syntax error: unexpected token '");
         }
 
-        Optional<String> result = Optional.of(input.substring(beginIndex + 1, endIndex - 1));
-        beginIndex = endIndex;
+        Optional<String> result = Optional.of(cursor.input.substring(cursor.beginIndex + 1, cursor.endIndex - 1));
+        cursor.beginIndex = cursor.endIndex;
         return result;
     }
 
-    private Optional<String> tryTokenizeNotQuoted() {
-        if (input.charAt(beginIndex) == '\'' || input.charAt(beginIndex) == '\"') {
+    private static Optional<String> tryTokenizeNotQuoted(Cursor cursor) {
+        if (cursor.input.charAt(cursor.beginIndex) == '\'' || cursor.input.charAt(cursor.beginIndex) == '\"') {
             return Optional.empty();
         }
 
         char current;
-        while (endIndex < input.length()) {
-            current = input.charAt(endIndex);
+        while (cursor.endIndex < cursor.input.length()) {
+            current = cursor.input.charAt(cursor.endIndex);
             if (current == ' ' || current == '\"' || current == '\'' || current == '|')
                 break;
             if (isForbiddenSymbol(current)) {
-                reset();
                 throw new ParsingException(String.format("Syntax error: unexpected token %c", current));
             }
-            endIndex++;
+            cursor.endIndex++;
         }
 
-        Optional<String> result = Optional.of(input.substring(beginIndex, endIndex));
-        beginIndex = endIndex;
+        Optional<String> result = Optional.of(cursor.input.substring(cursor.beginIndex, cursor.endIndex));
+        cursor.beginIndex = cursor.endIndex;
         return result;
     }
 
-    private boolean isForbiddenSymbol(char c) {
+    private static boolean isForbiddenSymbol(char c) {
         return c == '(' || c == ')' || c == '<' || c == '>' || c == '\\';
     }
 
-    private boolean hasNextToken() {
-        return beginIndex < input.length();
-    }
+    /**
+     * Позиция разбора текущей строки. Создается на каждый вызов {@link #parse(String, Context)},
+     * поэтому один экземпляр парсера можно использовать из нескольких потоков.
+     */
+    private static final class Cursor {
+        private final String input;
+        private int beginIndex;
+        private int endIndex;
 
-    private void reset() {
-        input = null;
-        beginIndex = 0;
-        endIndex = 0;
-        previousType = Token.Type.Pipe;
+        private Cursor(String input) {
+            this.input = input;
+        }
+
+        private boolean hasNextToken() {
+            return beginIndex < input.length();
+        }
+
+        private boolean isTokenEnd() {
+            return input.charAt(beginIndex) == ' ' || input.charAt(beginIndex) == '|';
+        }
     }
 }
@@ -0,0 +1,81 @@
+package ru.itmo.se.cli.server;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.SecureRandom;
+
+/**
+ * Секретный ключ, который клиент сервера отправляет первой строкой подключения.
+ * Ключ сохраняется в файл, доступный только владельцу ({@code 0600} в каталоге {@code 0700}),
+ * поэтому подключиться к сессии может только пользователь, запустивший сервер.
+ *
+ * @author Sergey Sokolvyak
+ */
+public final class DaemonToken {
+    private static final int TOKEN_BYTES = 32;
+    private static final String HEX_DIGITS = "0123456789abcdef";
+    private static final int NIBBLE_BITS = 4;
+    private static final int NIBBLE_MASK = 0xF;
+    private static final String DIRECTORY_PERMISSIONS = "rwx------";
+    private static final String FILE_PERMISSIONS = "rw-------";
+
+    private DaemonToken() {
+    }
+
+    /**
+     * Создает случайный ключ.
+     *
+     * @return ключ из шестнадцатеричных цифр
+     */
+    public static String generate() {
+        var bytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        var token = new StringBuilder(2 * bytes.length);
+        for (byte b : bytes)
+            token.append(HEX_DIGITS.charAt((b >> NIBBLE_BITS) & NIBBLE_MASK))
+                .append(HEX_DIGITS.charAt(b & NIBBLE_MASK));
+        return token.toString();
+    }
+
+    /**
+     * Возвращает путь к файлу ключа сервера в домашнем каталоге пользователя.
+     *
+     * @param port порт сервера
+     * @return путь {@code ~/.cli/daemon-<port>.token}
+     */
+    public static Path defaultFile(int port) {
+        return Path.of(System.getProperty("user.home"), ".cli", "daemon-" + port + ".token");
+    }
+
+    /**
+     * Записывает ключ в файл, доступный только владельцу. Файл заменяется атомарно,
+     * поэтому ключ не бывает виден с более широкими правами даже во время записи.
+     *
+     * @param file  путь к файлу ключа
+     * @param token ключ
+     * @throws IOException если файл не удалось записать
+     */
+    public static void write(Path file, String token) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        boolean isPosix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+        if (isPosix) {
+            Files.createDirectories(directory, permissions(DIRECTORY_PERMISSIONS));
+            Path temporary = Files.createTempFile(directory, ".daemon-", ".token", permissions(FILE_PERMISSIONS));
+            Files.writeString(temporary, token + "\n", StandardCharsets.US_ASCII);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } else {
+            Files.createDirectories(directory);
+            Files.writeString(file, token + "\n", StandardCharsets.US_ASCII);
+        }
+    }
+
+    private static FileAttribute<?> permissions(String permissions) {
+        return PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(permissions));
+    }
+}
@@ -0,0 +1,142 @@
+package ru.itmo.se.cli.server;
+
+import ru.itmo.se.cli.Shell;
+import ru.itmo.se.cli.command.execution.ThreadFactories;
+import ru.itmo.se.cli.environment.Console;
+import ru.itmo.se.cli.environment.Context;
+import ru.itmo.se.cli.environment.Session;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Сервер, выполняющий сессии интерпретатора в одной JVM.
+ * Принимает подключения на локальном TCP-порту; каждое подключение обслуживается отдельной сессией
+ * со своими переменными, вводом и выводом. Поток ошибок сессии выводится в то же подключение.
+ * Первой строкой подключения клиент отправляет секретный ключ сервера ({@link DaemonToken}):
+ * без него сессия не запускается, поэтому выполнять команды может только владелец файла ключа.
+ *
+ * @author Sergey Sokolvyak
+ */
+public class ShellServer implements Closeable {
+    private static final int BACKLOG = 128;
+    private static final int AUTHENTICATION_TIMEOUT_MILLIS = 10_000;
+    private static final byte[] AUTHENTICATION_FAILED =
+        "Authentication failed\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final Shell shell;
+    private final ServerSocket serverSocket;
+    private final byte[] token;
+    private final ThreadFactory sessionThreads = ThreadFactories.configured("shell-session-");
+
+    /**
+     * Конструктор сервера. Открывает порт на loopback-интерфейсе.
+     *
+     * @param shell интерпретатор, выполняющий команды сессий
+     * @param port  номер порта, 0 выбирает свободный порт
+     * @param token секретный ключ, который клиент отправляет первой строкой подключения
+     * @throws IOException если порт не удалось открыть
+     */
+    public ShellServer(Shell shell, int port, String token) throws IOException {
+        if (token.isEmpty())
+            throw new IllegalArgumentException("Token must not be empty");
+        this.shell = shell;
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+        this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * Возвращает номер порта, на котором сервер принимает подключения.
+     *
+     * @return номер порта
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Принимает подключения и запускает для каждого из них сессию, пока сервер не будет закрыт.
+     *
+     * @throws IOException если не удалось принять подключение
+     */
+    public void serve() throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (serverSocket.isClosed())
+                    return;
+                throw e;
+            }
+            sessionThreads.newThread(() -> runSession(socket)).start();
+        }
+    }
+
+    /**
+     * Прекращает прием подключений. Уже запущенные сессии продолжают работу.
+     *
+     * @throws IOException если не удалось закрыть порт
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void runSession(Socket socket) {
+        try (socket) {
+            var input = new BufferedInputStream(socket.getInputStream());
+            var output = new BufferedOutputStream(socket.getOutputStream());
+            if (!authenticate(socket, input)) {
+                output.write(AUTHENTICATION_FAILED);
+                output.flush();
+                return;
+            }
+            var console = new Console(input, output, output);
+            shell.run(new Session(new Context(), console));
+            console.flush();
+        } catch (IOException ignored) {
+            // клиент отключился или не отправил ключ вовремя
+        }
+    }
+
+    private boolean authenticate(Socket socket, InputStream input) throws IOException {
+        socket.setSoTimeout(AUTHENTICATION_TIMEOUT_MILLIS);
+        byte[] received = readFirstLine(input);
+        socket.setSoTimeout(0);
+        return received != null && MessageDigest.isEqual(received, token);
+    }
+
+    /**
+     * Читает первую строку подключения, не читая ничего после нее: остальной ввод принадлежит сессии.
+     *
+     * @param input поток ввода подключения
+     * @return строка без символов конца строки или null, если строка длиннее ключа
+     * @throws IOException если строку не удалось прочитать
+     */
+    private byte[] readFirstLine(InputStream input) throws IOException {
+        var line = new ByteArrayOutputStream(token.length);
+        int b;
+        while ((b = input.read()) != -1 && b != '\n') {
+            if (line.size() > token.length)
+                return null;
+            line.write(b);
+        }
+        byte[] bytes = line.toByteArray();
+        int length = bytes.length;
+        if (length > 0 && bytes[length - 1] == '\r')
+            length--;
+        return Arrays.copyOf(bytes, length);
+    }
+}
@@ -0,0 +1,39 @@
+package ru.itmo.se.cli.trace;
+
+/**
+ * Интервал трассировки. Начинается при создании и записывается при закрытии,
+ * поэтому используется в try-with-resources. Если трассировка выключена, интервал ничего не делает.
+ *
+ * @author Sergey Sokolvyak
+ * @see Tracer#span(String, String)
+ */
+public interface Span extends AutoCloseable {
+    /**
+     * Интервал, который ничего не записывает.
+     */
+    Span NOOP = new Span() {
+        @Override
+        public Span setArgument(String name, Object value) {
+            return this;
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * Добавляет к интервалу аргумент, который отображается в деталях интервала.
+     *
+     * @param name  имя аргумента
+     * @param value значение аргумента: число, логическое значение или строка
+     * @return этот интервал
+     */
+    Span setArgument(String name, Object value);
+
+    /**
+     * Завершает интервал и записывает его в трассу.
+     */
+    @Override
+    void close();
+}
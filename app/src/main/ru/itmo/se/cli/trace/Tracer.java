@@ -0,0 +1,222 @@
+package ru.itmo.se.cli.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Трассировка выполнения интерпретатора в формате Chrome trace-event (JSON Array Format),
+ * который открывается в {@code chrome://tracing} и Perfetto. Каждый интервал записывается
+ * как событие {@code "ph": "X"} в потоке, где он выполнялся, поэтому одновременно работающие
+ * команды pipeline-а видны на отдельных дорожках. События пишутся в файл по мере завершения
+ * интервалов, и объем занятой памяти не зависит от длины трассы.
+ * Трассировка включается для всего процесса ключом {@code --trace=<file>}; пока она выключена,
+ * {@link #span(String, String)} возвращает {@link Span#NOOP}. Если трассу не удалось записать,
+ * трассировка выключается с сообщением в поток ошибок, а выполнение команд продолжается.
+ *
+ * @author Sergey Sokolvyak
+ */
+public final class Tracer implements Closeable {
+    private static final long WAIT_THRESHOLD_NANOS = 100_000;
+    private static final int EVENT_CAPACITY = 128;
+    private static final double NANOS_PER_MICRO = 1000.0;
+    private static final char FIRST_PRINTABLE = 0x20;
+    private static volatile Tracer current;
+
+    private final Writer writer;
+    private final long originNanos = System.nanoTime();
+    private final long pid = ProcessHandle.current().pid();
+    private final Set<Long> namedThreads = ConcurrentHashMap.newKeySet();
+    private boolean isFirstEvent = true;
+    private boolean isClosed;
+
+    private Tracer(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Включает трассировку процесса в файл.
+     *
+     * @param file файл, в который записывается трасса
+     * @return трассировщик; его закрытие завершает трассу
+     * @throws IOException если файл не удалось создать
+     */
+    public static synchronized Tracer start(Path file) throws IOException {
+        requireNotStarted();
+        return start(Files.newBufferedWriter(file));
+    }
+
+    static synchronized Tracer start(Writer writer) throws IOException {
+        requireNotStarted();
+        var tracer = new Tracer(writer);
+        tracer.writer.write("[");
+        current = tracer;
+        return tracer;
+    }
+
+    private static void requireNotStarted() {
+        if (current != null)
+            throw new IllegalStateException("Tracing is already started");
+    }
+
+    /**
+     * Проверяет, включена ли трассировка.
+     *
+     * @return true, если интервалы записываются
+     */
+    public static boolean isEnabled() {
+        return current != null;
+    }
+
+    /**
+     * Начинает интервал в текущем потоке.
+     *
+     * @param category категория интервала, по которой события можно отфильтровать
+     * @param name     имя интервала
+     * @return интервал или {@link Span#NOOP}, если трассировка выключена
+     */
+    public static Span span(String category, String name) {
+        Tracer tracer = current;
+        return tracer == null ? Span.NOOP : tracer.new RecordedSpan(category, name, 0);
+    }
+
+    /**
+     * Начинает интервал ожидания ввода-вывода. Ожидания короче 100 мкс не записываются,
+     * чтобы частые короткие ожидания не раздували трассу.
+     *
+     * @param name имя интервала
+     * @return интервал или {@link Span#NOOP}, если трассировка выключена
+     */
+    public static Span waitSpan(String name) {
+        Tracer tracer = current;
+        return tracer == null ? Span.NOOP : tracer.new RecordedSpan("io", name, WAIT_THRESHOLD_NANOS);
+    }
+
+    /**
+     * Выключает трассировку и завершает файл трассы.
+     *
+     * @throws IOException если трассу не удалось записать
+     */
+    @Override
+    public void close() throws IOException {
+        detach();
+        synchronized (this) {
+            if (isClosed)
+                return;
+            isClosed = true;
+            writer.write("\n]\n");
+            writer.close();
+        }
+    }
+
+    private void detach() {
+        synchronized (Tracer.class) {
+            if (current == this)
+                current = null;
+        }
+    }
+
+    private void record(String category, String name, long startNanos, long durationNanos,
+                        Map<String, Object> arguments) {
+        Thread thread = Thread.currentThread();
+        @SuppressWarnings("deprecation")
+        long tid = thread.getId();
+        var event = new StringBuilder(EVENT_CAPACITY);
+        if (namedThreads.add(tid)) {
+            event.append(String.format(Locale.ROOT,
+                "{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":%d,\"tid\":%d,\"args\":{\"name\":", pid, tid));
+            appendString(event, thread.getName()).append("}},\n");
+        }
+        event.append("{\"name\":");
+        appendString(event, name).append(",\"cat\":");
+        appendString(event, category).append(String.format(Locale.ROOT,
+            ",\"ph\":\"X\",\"ts\":%.3f,\"dur\":%.3f,\"pid\":%d,\"tid\":%d",
+            (startNanos - originNanos) / NANOS_PER_MICRO, durationNanos / NANOS_PER_MICRO, pid, tid));
+        if (arguments != null) {
+            event.append(",\"args\":{");
+            boolean isFirstArgument = true;
+            for (Map.Entry<String, Object> argument : arguments.entrySet()) {
+                if (!isFirstArgument)
+                    event.append(',');
+                isFirstArgument = false;
+                appendString(event, argument.getKey()).append(':');
+                Object value = argument.getValue();
+                if (value instanceof Number || value instanceof Boolean)
+                    event.append(value);
+                else
+                    appendString(event, String.valueOf(value));
+            }
+            event.append('}');
+        }
+        event.append('}');
+        write(event);
+    }
+
+    private synchronized void write(CharSequence event) {
+        if (isClosed)
+            return;
+        try {
+            writer.append(isFirstEvent ? "\n" : ",\n").append(event);
+            isFirstEvent = false;
+        } catch (IOException e) {
+            System.err.println("Cannot write trace, tracing is stopped: " + e.getMessage());
+            isClosed = true;
+            detach();
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+                // трасса уже повреждена, повторная ошибка ничего не добавляет
+            }
+        }
+    }
+
+    private static StringBuilder appendString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\')
+                sb.append('\\').append(c);
+            else if (c < FIRST_PRINTABLE)
+                sb.append(String.format("\\u%04x", (int) c));
+            else
+                sb.append(c);
+        }
+        return sb.append('"');
+    }
+
+    private final class RecordedSpan implements Span {
+        private final String category;
+        private final String name;
+        private final long thresholdNanos;
+        private final long startNanos = System.nanoTime();
+        private Map<String, Object> arguments;
+
+        private RecordedSpan(String category, String name, long thresholdNanos) {
+            this.category = category;
+            this.name = name;
+            this.thresholdNanos = thresholdNanos;
+        }
+
+        @Override
+        public Span setArgument(String name, Object value) {
+            if (arguments == null)
+                arguments = new LinkedHashMap<>();
+            arguments.put(name, value);
+            return this;
+        }
+
+        @Override
+        public void close() {
+            long durationNanos = System.nanoTime() - startNanos;
+            if (durationNanos >= thresholdNanos)
+                record(category, name, startNanos, durationNanos, arguments);
+        }
+    }
+}
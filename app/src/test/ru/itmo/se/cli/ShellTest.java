@@ -0,0 +1,106 @@
+package ru.itmo.se.cli;
+
+import org.junit.jupiter.api.*;
+import ru.itmo.se.cli.command.execution.ConcurrentCommandExecutor;
+import ru.itmo.se.cli.environment.Console;
+import ru.itmo.se.cli.environment.Context;
+import ru.itmo.se.cli.environment.Session;
+import ru.itmo.se.cli.parser.ExpansionProvider;
+import ru.itmo.se.cli.parser.SimpleCommandLineParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * @author Sergey Sokolvyak
+ */
+public class ShellTest {
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream errors = new ByteArrayOutputStream();
+    private Shell shell;
+    private Console console;
+
+    @BeforeEach
+    public void setUp() {
+        shell = new Shell(new SimpleCommandLineParser(new ExpansionProvider()), new ConcurrentCommandExecutor());
+        console = Console.buffered(InputStream.nullInputStream(), output, errors, 1024);
+    }
+
+    @Test
+    @Tag("Shell")
+    @DisplayName("Test script output is written only when drained")
+    public void testBufferedScript() throws IOException {
+        int exitCode = run("# comment\n\nx=world\necho hello $x | wc\necho \"unclosed\necho last\n");
+        Assertions.assertEquals(0, exitCode);
+        Assertions.assertEquals("", output.toString());
+        Assertions.assertEquals("Syntax error: unexpected token \"\n", errors.toString());
+
+        console.drain();
+        Assertions.assertEquals("      1      2      12 \nlast\n", output.toString());
+    }
+
+    @Test
+    @Tag("Shell")
+    @DisplayName("Test script returns exit code of the last command")
+    public void testExitCode() {
+        Assertions.assertEquals(1, run("echo ok\ncat definitely_missing_file.txt\n"));
+        Assertions.assertEquals(0, run("cat definitely_missing_file.txt\necho ok\n"));
+        Assertions.assertEquals(1, run("echo \"unclosed\nexit\necho unreachable\n"));
+    }
+
+    @Test
+    @Tag("Shell")
+    @DisplayName("Test time prints statistics of every stage")
+    public void testTime() throws IOException {
+        Assertions.assertEquals(0, run("time echo hello world | wc\n"));
+        console.drain();
+        Assertions.assertEquals("      1      2      12 \n", output.toString());
+
+        String[] report = errors.toString().split("\n");
+        Assertions.assertEquals(4, report.length);
+        Assertions.assertTrue(report[0].startsWith("stage"));
+        Assertions.assertArrayEquals(new String[]{"echo", "0", "12"}, columns(report[1], 0, 3, 4));
+        Assertions.assertArrayEquals(new String[]{"wc", "12", "24"}, columns(report[2], 0, 3, 4));
+        Assertions.assertArrayEquals(new String[]{"total", "0", "24"}, columns(report[3], 0, 3, 4));
+    }
+
+    @Test
+    @Tag("Shell")
+    @DisplayName("Test time measures variable declaration")
+    public void testTimeDeclaration() throws IOException {
+        Assertions.assertEquals(0, run("time x=1\necho $x\n"));
+        console.drain();
+        Assertions.assertEquals("1\n", output.toString());
+
+        String[] report = errors.toString().split("\n");
+        Assertions.assertEquals(3, report.length);
+        Assertions.assertTrue(report[0].startsWith("stage"));
+        Assertions.assertEquals("total", columns(report[2], 0)[0]);
+    }
+
+    @Test
+    @Tag("Shell")
+    @DisplayName("Test time without pipeline prints empty statistics")
+    public void testTimeWithoutPipeline() {
+        Assertions.assertEquals(0, run("time\n"));
+
+        String[] report = errors.toString().split("\n");
+        Assertions.assertEquals(2, report.length);
+        Assertions.assertTrue(report[0].startsWith("stage"));
+        Assertions.assertArrayEquals(new String[]{"total", "0", "0"}, columns(report[1], 0, 3, 4));
+    }
+
+    private static String[] columns(String row, int... indices) {
+        String[] columns = row.trim().split("\\s+");
+        var result = new String[indices.length];
+        for (int i = 0; i < indices.length; i++)
+            result[i] = columns[indices[i]];
+        return result;
+    }
+
+    private int run(String script) {
+        return shell.run(new Session(new Context(), console), new ByteArrayInputStream(script.getBytes()));
+    }
+}
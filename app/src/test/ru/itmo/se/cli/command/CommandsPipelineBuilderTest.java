@@ -3,6 +3,7 @@ package ru.itmo.se.cli.command;
 import org.junit.jupiter.api.*;
 import ru.itmo.se.cli.command.builder.CommandsPipelineBuilder;
 import ru.itmo.se.cli.command.builder.PipelineBuildingException;
+import ru.itmo.se.cli.environment.Session;
 import ru.itmo.se.cli.parser.Token;
 
 import java.util.ArrayList;
@@ -22,7 +23,7 @@ public class CommandsPipelineBuilderTest {
         tokens.add(new Token("test.txt", Token.Type.Arg));
         tokens.add(new Token("super_secret_passwords.pdf", Token.Type.Arg));
         tokens.add(new Token("funny_file.txt", Token.Type.Arg));
-        List<Command> command = CommandsPipelineBuilder.buildPipe(tokens);
+        List<Command> command = CommandsPipelineBuilder.buildPipe(tokens, Session.system());
         Assertions.assertEquals(command.size(), 1);
         Assertions.assertEquals(CatCommand.class, command.get(0).getClass());
     }
@@ -52,7 +53,7 @@ public class CommandsPipelineBuilderTest {
         tokens.add(new Token("|", Token.Type.Pipe));
         tokens.add(new Token("ls", Token.Type.Command));
         tokens.add(new Token("-l", Token.Type.Arg));
-        List<Command> command = CommandsPipelineBuilder.buildPipe(tokens);
+        List<Command> command = CommandsPipelineBuilder.buildPipe(tokens, Session.system());
         Assertions.assertEquals(command.size(), 6);
         Assertions.assertEquals(WcCommand.class, command.get(0).getClass());
         Assertions.assertEquals(EchoCommand.class, command.get(1).getClass());
@@ -70,7 +71,7 @@ public class CommandsPipelineBuilderTest {
         tokens.add(new Token("var1=12", Token.Type.VarDecl));
         tokens.add(new Token("v_2=version_2.0", Token.Type.VarDecl));
         tokens.add(new Token("funny=ha-ha", Token.Type.VarDecl));
-        List<Command> command = CommandsPipelineBuilder.buildPipe(tokens);
+        List<Command> command = CommandsPipelineBuilder.buildPipe(tokens, Session.system());
         Assertions.assertEquals(command.size(), 1);
         Assertions.assertEquals(VariablesProcessingCommand.class, command.get(0).getClass());
     }
@@ -91,7 +92,7 @@ public class CommandsPipelineBuilderTest {
         tokens.add(new Token("this text won't be printed", Token.Type.Arg));
         tokens.add(new Token("|", Token.Type.Pipe));
         tokens.add(new Token("variable=informative", Token.Type.VarDecl));
-        List<Command> command = CommandsPipelineBuilder.buildPipe(tokens);
+        List<Command> command = CommandsPipelineBuilder.buildPipe(tokens, Session.system());
         Assertions.assertEquals(command.size(), 2);
         Assertions.assertEquals(CatCommand.class, command.get(0).getClass());
         Assertions.assertEquals(ExitCommand.class, command.get(1).getClass());
@@ -107,7 +108,7 @@ public class CommandsPipelineBuilderTest {
         tokens.add(new Token("funny_file.txt", Token.Type.Arg));
         tokens.add(new Token("|", Token.Type.Pipe));
         Throwable exception = Assertions.assertThrows(PipelineBuildingException.class,
-            () -> CommandsPipelineBuilder.buildPipe(tokens));
+            () -> CommandsPipelineBuilder.buildPipe(tokens, Session.system()));
         Assertions.assertEquals("Unexpected end of the pipeline", exception.getMessage());
     }
 
@@ -122,7 +123,7 @@ public class CommandsPipelineBuilderTest {
         tokens.add(new Token("funny_file.txt", Token.Type.Arg));
         tokens.add(new Token("|", Token.Type.Pipe));
         Throwable exception = Assertions.assertThrows(PipelineBuildingException.class,
-            () -> CommandsPipelineBuilder.buildPipe(tokens));
+            () -> CommandsPipelineBuilder.buildPipe(tokens, Session.system()));
         Assertions.assertEquals("Bad pipeline composition: unexpected pipeline token", exception.getMessage());
     }
 
@@ -138,7 +139,28 @@ public class CommandsPipelineBuilderTest {
         tokens.add(new Token("funny_file.txt", Token.Type.Arg));
         tokens.add(new Token("|", Token.Type.Pipe));
         Throwable exception = Assertions.assertThrows(PipelineBuildingException.class,
-            () -> CommandsPipelineBuilder.buildPipe(tokens));
+            () -> CommandsPipelineBuilder.buildPipe(tokens, Session.system()));
         Assertions.assertEquals("Bad pipeline composition: unexpected argument token", exception.getMessage());
     }
+
+    @Test
+    @Tag("CommandsPipelineBuilder")
+    @DisplayName("Test command builder merges adjacent external commands")
+    public void testCommandBuilderMergesExternalCommands() {
+        Assumptions.assumeTrue(ExternalCommand.isNativePipelineSupported());
+        List<Token> tokens = new ArrayList<>();
+        tokens.add(new Token("ls", Token.Type.Command));
+        tokens.add(new Token("-l", Token.Type.Arg));
+        tokens.add(new Token("|", Token.Type.Pipe));
+        tokens.add(new Token("sort", Token.Type.Command));
+        tokens.add(new Token("|", Token.Type.Pipe));
+        tokens.add(new Token("wc", Token.Type.Command));
+        tokens.add(new Token("|", Token.Type.Pipe));
+        tokens.add(new Token("tac", Token.Type.Command));
+        List<Command> command = CommandsPipelineBuilder.buildPipe(tokens, Session.system());
+        Assertions.assertEquals(3, command.size());
+        Assertions.assertEquals(ExternalCommand.class, command.get(0).getClass());
+        Assertions.assertEquals(WcCommand.class, command.get(1).getClass());
+        Assertions.assertEquals(ExternalCommand.class, command.get(2).getClass());
+    }
 }
@@ -0,0 +1,122 @@
+package ru.itmo.se.cli.command.builtin;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import ru.itmo.se.cli.command.Command;
+import ru.itmo.se.cli.command.ExternalCommand;
+import ru.itmo.se.cli.command.builder.CommandsPipelineBuilder;
+import ru.itmo.se.cli.command.execution.ConcurrentCommandExecutor;
+import ru.itmo.se.cli.environment.Console;
+import ru.itmo.se.cli.environment.Context;
+import ru.itmo.se.cli.environment.Session;
+import ru.itmo.se.cli.parser.Token;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * @author Sergey Sokolvyak
+ */
+public class BuiltinRegistryTest {
+    @Test
+    @Tag("BuiltinRegistry")
+    @DisplayName("Test builtin from provider runs in process")
+    public void testProvidedBuiltin() {
+        Assertions.assertTrue(BuiltinRegistry.getDefault().find("shout").isPresent());
+        Assertions.assertTrue(BuiltinRegistry.getDefault().find("definitely-not-a-builtin").isEmpty());
+
+        var output = new ByteArrayOutputStream();
+        var session = new Session(new Context(), new Console(InputStream.nullInputStream(), output, output));
+        List<Command> pipeline = CommandsPipelineBuilder.buildPipe(List.of(
+            new Token("echo", Token.Type.Command),
+            new Token("ignored", Token.Type.Arg),
+            new Token("|", Token.Type.Pipe),
+            new Token("shout", Token.Type.Command),
+            new Token("hello", Token.Type.Arg)
+        ), session);
+        Assertions.assertFalse(pipeline.get(1) instanceof ExternalCommand);
+
+        new ConcurrentCommandExecutor().execute(pipeline, session);
+        Assertions.assertEquals("HELLO\n", output.toString());
+    }
+
+    @Test
+    @Tag("BuiltinRegistry")
+    @DisplayName("Test provider failing to report names is skipped")
+    public void testFailingProvider(@TempDir Path directory) throws IOException {
+        Path services = directory.resolve("META-INF/services/" + BuiltinProvider.class.getName());
+        Files.createDirectories(services.getParent());
+        Files.writeString(services, FailingProvider.class.getName() + "\n" + QuietProvider.class.getName() + "\n");
+
+        try (var classLoader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, getClass().getClassLoader())) {
+            var registry = new BuiltinRegistry(classLoader);
+            Assertions.assertTrue(registry.find("quiet").isPresent());
+            Assertions.assertTrue(registry.find("shout").isPresent());
+            Assertions.assertTrue(registry.find("failing").isEmpty());
+        }
+    }
+
+    /**
+     * Поставщик тестовой команды, печатающей аргументы в верхнем регистре.
+     */
+    public static final class ShoutProvider implements BuiltinProvider {
+        @Override
+        public Set<String> getNames() {
+            return Set.of("shout");
+        }
+
+        @Override
+        public Command create(String name, List<String> arguments, Session session) {
+            return new Command() {
+                @Override
+                public int execute() {
+                    writeToOutput(String.join(" ", arguments).toUpperCase(Locale.ROOT) + "\n");
+                    return 0;
+                }
+            };
+        }
+    }
+
+    /**
+     * Поставщик, который не может сообщить имена своих команд.
+     */
+    public static final class FailingProvider implements BuiltinProvider {
+        @Override
+        public Set<String> getNames() {
+            throw new IllegalStateException("broken provider");
+        }
+
+        @Override
+        public Command create(String name, List<String> arguments, Session session) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Поставщик тестовой команды, которая ничего не печатает.
+     */
+    public static final class QuietProvider implements BuiltinProvider {
+        @Override
+        public Set<String> getNames() {
+            return Set.of("quiet");
+        }
+
+        @Override
+        public Command create(String name, List<String> arguments, Session session) {
+            return new Command() {
+                @Override
+                public int execute() {
+                    return 0;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ru.itmo.se.cli.command.execution;
+
+import org.junit.jupiter.api.*;
+import ru.itmo.se.cli.command.CatCommand;
+import ru.itmo.se.cli.command.Command;
+import ru.itmo.se.cli.command.EchoCommand;
+import ru.itmo.se.cli.command.GrepCommand;
+import ru.itmo.se.cli.command.WcCommand;
+import ru.itmo.se.cli.environment.Console;
+import ru.itmo.se.cli.environment.Context;
+import ru.itmo.se.cli.environment.Session;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * @author Sergey Sokolvyak
+ */
+public class ConcurrentCommandExecutorTest {
+    private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    private Session session;
+    private CommandExecutor executor;
+
+    @BeforeEach
+    public void setUp() {
+        session = new Session(new Context(), new Console(InputStream.nullInputStream(), stdout, stdout));
+        executor = new ConcurrentCommandExecutor(Thread::new, 16);
+    }
+
+    @Test
+    @Tag("CommandExecutor")
+    @DisplayName("Test concurrent executor passes output through small pipes")
+    public void testPipelineThroughPipes() throws IOException {
+        Path file = Files.createTempFile("concurrent-executor", ".txt");
+        try {
+            var content = new StringBuilder();
+            for (int i = 0; i < 1000; i++)
+                content.append(i % 10 == 0 ? "match " : "skip ").append(i).append('\n');
+            Files.writeString(file, content);
+
+            List<Command> pipeline = List.of(
+                new CatCommand(new ArrayList<>(List.of(file.toString())), true),
+                new GrepCommand(0, Pattern.compile("match"), new ArrayList<>()),
+                new WcCommand(new ArrayList<>(), false)
+            );
+            Assertions.assertEquals(0, executor.execute(pipeline, session));
+            Assertions.assertEquals("      100      200      989 \n", stdout.toString());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    @Tag("CommandExecutor")
+    @DisplayName("Test concurrent executor ignores writer stopped by finished reader")
+    public void testReaderFinishesFirst() throws IOException {
+        Path file = Files.createTempFile("concurrent-executor", ".txt");
+        try {
+            Files.write(file, new byte[1024 * 1024]);
+            List<Command> pipeline = List.of(
+                new CatCommand(new ArrayList<>(List.of(file.toString())), true),
+                new EchoCommand(List.of("done"))
+            );
+            Assertions.assertEquals(0, executor.execute(pipeline, session));
+            Assertions.assertEquals("done\n", stdout.toString());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    @Tag("CommandExecutor")
+    @DisplayName("Test concurrent executor rethrows failure of a stage")
+    public void testStageFailure() {
+        List<Command> pipeline = List.of(
+            new CatCommand(new ArrayList<>(List.of("definitely_missing_file.txt")), true),
+            new WcCommand(new ArrayList<>(), false)
+        );
+        Throwable exception = Assertions.assertThrows(CommandExecutionException.class,
+            () -> executor.execute(pipeline, session));
+        Assertions.assertEquals("Cat command error: cannot read file definitely_missing_file.txt",
+            exception.getMessage());
+    }
+}
@@ -0,0 +1,77 @@
+package ru.itmo.se.cli.command.execution;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.*;
+import ru.itmo.se.cli.command.builder.CommandsPipelineBuilder;
+import ru.itmo.se.cli.environment.Console;
+import ru.itmo.se.cli.environment.Context;
+import ru.itmo.se.cli.environment.Session;
+import ru.itmo.se.cli.event.CommandEvent;
+import ru.itmo.se.cli.event.ParseEvent;
+import ru.itmo.se.cli.parser.ExpansionProvider;
+import ru.itmo.se.cli.parser.SimpleCommandLineParser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * @author Sergey Sokolvyak
+ */
+public class RecordingCommandExecutorTest {
+    @Test
+    @Tag("CommandExecutor")
+    @DisplayName("Test JFR events are recorded for parse and every command")
+    public void testEvents() throws IOException {
+        var output = new ByteArrayOutputStream();
+        var session = new Session(new Context(), new Console(InputStream.nullInputStream(), output, output));
+        var parser = new SimpleCommandLineParser(new ExpansionProvider());
+        var executor = new RecordingCommandExecutor(new ConcurrentCommandExecutor());
+
+        Path file = Files.createTempFile("recording-executor", ".jfr");
+        try (var recording = new Recording()) {
+            recording.enable(ParseEvent.class);
+            recording.enable(CommandEvent.class);
+            recording.start();
+            executor.execute(CommandsPipelineBuilder.buildPipe(
+                parser.parse("echo hello world | wc", session.getContext()), session), session);
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            RecordedEvent parse = findEvents(events, "ru.itmo.se.cli.Parse").get(0);
+            Assertions.assertEquals("echo", parse.getString("commandName"));
+            Assertions.assertEquals(4, parse.getInt("argumentCount"));
+            Assertions.assertEquals(0, parse.getLong("cacheHits"));
+            Assertions.assertEquals(1, parse.getLong("cacheMisses"));
+            Assertions.assertEquals(1, parse.getInt("cacheSize"));
+
+            List<RecordedEvent> commands = findEvents(events, "ru.itmo.se.cli.Command");
+            Assertions.assertEquals(List.of("echo", "wc"), commands.stream()
+                .map(event -> event.getString("commandName"))
+                .sorted()
+                .collect(Collectors.toList()));
+            for (RecordedEvent command : commands) {
+                boolean isEcho = command.getString("commandName").equals("echo");
+                Assertions.assertEquals(isEcho ? 2 : 0, command.getInt("argumentCount"));
+                Assertions.assertEquals(isEcho ? 0 : 12, command.getLong("bytesRead"));
+                Assertions.assertEquals(isEcho ? 12 : 24, command.getLong("bytesWritten"));
+                Assertions.assertEquals(0, command.getInt("exitCode"));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static List<RecordedEvent> findEvents(List<RecordedEvent> events, String name) {
+        return events.stream()
+            .filter(event -> event.getEventType().getName().equals(name))
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,92 @@
+package ru.itmo.se.cli.command.execution;
+
+import org.junit.jupiter.api.*;
+import ru.itmo.se.cli.command.Command;
+import ru.itmo.se.cli.environment.Console;
+import ru.itmo.se.cli.environment.Context;
+import ru.itmo.se.cli.environment.Descriptor;
+import ru.itmo.se.cli.environment.Session;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * @author Sergey Sokolvyak
+ */
+public class TimingCommandExecutorTest {
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final TimingCommandExecutor executor = new TimingCommandExecutor(new ConcurrentCommandExecutor());
+
+    @Test
+    @Tag("CommandExecutor")
+    @DisplayName("Test failed statistics write does not change pipeline result")
+    public void testBrokenErrorStream() {
+        var session = new Session(new Context(), new Console(InputStream.nullInputStream(), output, new BrokenStream()));
+
+        Assertions.assertEquals(3, executor.execute(List.of(new ExitCommand(3)), session));
+        var error = Assertions.assertThrows(CommandExecutionException.class,
+            () -> executor.execute(List.of(new FailingCommand()), session));
+        Assertions.assertEquals("failing command error", error.getMessage());
+    }
+
+    @Test
+    @Tag("CommandExecutor")
+    @DisplayName("Test measured command receives only descriptors set by executor")
+    public void testDescriptorsAreSetOnce() {
+        var session = new Session(new Context(), new Console(InputStream.nullInputStream(), output, output));
+        var command = new ExitCommand(0);
+
+        Assertions.assertEquals(0, executor.execute(List.of(command), session));
+        Assertions.assertEquals(1, command.inputCount);
+        Assertions.assertEquals(1, command.outputCount);
+    }
+
+    private static final class ExitCommand extends Command {
+        private final int exitCode;
+        private int inputCount;
+        private int outputCount;
+
+        private ExitCommand(int exitCode) {
+            this.exitCode = exitCode;
+        }
+
+        @Override
+        public int execute() {
+            return exitCode;
+        }
+
+        @Override
+        public void setInput(Descriptor input) {
+            inputCount++;
+            super.setInput(input);
+        }
+
+        @Override
+        public void setOutput(Descriptor output) {
+            outputCount++;
+            super.setOutput(output);
+        }
+    }
+
+    private static final class FailingCommand extends Command {
+        @Override
+        public int execute() {
+            throw new CommandExecutionException("failing command error");
+        }
+    }
+
+    private static final class BrokenStream extends OutputStream {
+        @Override
+        public void write(int b) throws IOException {
+            throw new IOException("Broken pipe");
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            throw new IOException("Broken pipe");
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package ru.itmo.se.cli.command.text;
+
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * @author Sergey Sokolvyak
+ */
+public class GrepEngineTest {
+    private ExecutorService executor;
+    private Path firstFile;
+    private Path secondFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        executor = Executors.newFixedThreadPool(4);
+        firstFile = Files.createTempFile("grep-engine", ".txt");
+        secondFile = Files.createTempFile("grep-engine", ".txt");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        Files.deleteIfExists(firstFile);
+        Files.deleteIfExists(secondFile);
+    }
+
+    @Test
+    @Tag("GrepEngine")
+    @DisplayName("Test chunked search keeps order and trailing context across chunks")
+    public void testChunkedSearchMatchesSequentialSearch() throws IOException {
+        var content = new StringBuilder();
+        for (int i = 0; i < 500; i++)
+            content.append(i % 37 == 0 ? "match " : "line ").append(i).append('\n');
+        Files.writeString(firstFile, content);
+        Files.writeString(secondFile, "line a\r\nmatch b\r\nline c\r\nline d\r\nline e");
+
+        for (int trailingLines : new int[]{0, 1, 5, 40}) {
+            String expected = search(trailingLines, Integer.MAX_VALUE);
+            for (int chunkSize : new int[]{1, 10, 100, 1000})
+                Assertions.assertEquals(expected, search(trailingLines, chunkSize),
+                    "-A " + trailingLines + ", chunk size " + chunkSize);
+        }
+    }
+
+    @Test
+    @Tag("GrepEngine")
+    @DisplayName("Test trailing context does not continue into the next file")
+    public void testTrailingContextPerFile() throws IOException {
+        Files.writeString(firstFile, "one\nmatch\n");
+        Files.writeString(secondFile, "two\nthree\n");
+        Assertions.assertEquals("match\n", search(3, 4));
+    }
+
+    @Test
+    @Tag("GrepEngine")
+    @DisplayName("Test no more chunks are submitted than may be in flight")
+    public void testChunksInFlightAreBounded() throws IOException {
+        var content = new StringBuilder();
+        for (int i = 0; i < 50; i++)
+            content.append("match ").append(i).append('\n');
+        Files.writeString(firstFile, content);
+        Files.writeString(secondFile, "");
+
+        int maxChunksInFlight = 3;
+        var submitted = new AtomicInteger();
+        Executor countingExecutor = task -> {
+            submitted.incrementAndGet();
+            task.run();
+        };
+        var engine = new GrepEngine(() -> new RegexLineMatcher(Pattern.compile("match")), 0, 1,
+            countingExecutor, maxChunksInFlight);
+        var written = new StringBuilder();
+        var destination = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) {
+                int line = written.toString().split("\n", -1).length - 1;
+                Assertions.assertTrue(submitted.get() <= line + maxChunksInFlight,
+                    "submitted " + submitted.get() + " chunks before writing line " + line);
+                written.append(buffer, offset, length);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        engine.search(List.of(firstFile.toString()), InputStream.nullInputStream(), destination);
+        Assertions.assertEquals(content.toString(), written.toString());
+        Assertions.assertEquals(50, submitted.get());
+    }
+
+    @Test
+    @Tag("GrepEngine")
+    @DisplayName("Test literal search in bytes agrees with regular expression search")
+    public void testLiteralSearchAgreesWithRegex() throws IOException {
+        String content = "ok\r\nERROR: диск полон\r\nдальше\nещё\nerrors нет\nошибка error";
+        Files.writeString(firstFile, content);
+        Files.writeString(secondFile, content);
+        var literal = new GrepEngine(() -> new LiteralLineMatcher("error", true, true), 1, 16, executor, 3,
+            StandardCharsets.UTF_8);
+        var pattern = Pattern.compile("\\berror\\b", Pattern.CASE_INSENSITIVE);
+        var regex = new GrepEngine(() -> new RegexLineMatcher(pattern), 1, 16, executor, 3, StandardCharsets.UTF_8);
+
+        List<String> filenames = List.of(firstFile.toString(), "-", secondFile.toString());
+        var expected = new StringWriter();
+        regex.search(filenames, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), expected);
+        var actual = new StringWriter();
+        literal.search(filenames, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), actual);
+        Assertions.assertEquals("ERROR: диск полон\nдальше\nошибка error\n".repeat(3), expected.toString());
+        Assertions.assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    @Tag("GrepEngine")
+    @DisplayName("Test search leaves input stream open")
+    public void testInputStreamIsNotClosed() throws IOException {
+        var pattern = Pattern.compile("error");
+        List<GrepEngine> engines = List.of(
+            new GrepEngine(() -> new RegexLineMatcher(pattern), 0, 16, executor, 3, StandardCharsets.UTF_8),
+            new GrepEngine(() -> new LiteralLineMatcher("error", false, false), 0, 16, executor, 3,
+                StandardCharsets.UTF_8));
+        for (GrepEngine engine : engines) {
+            var isClosed = new AtomicBoolean();
+            var input = new ByteArrayInputStream("error\nok\n".getBytes(StandardCharsets.UTF_8)) {
+                @Override
+                public void close() {
+                    isClosed.set(true);
+                }
+            };
+            var destination = new StringWriter();
+            engine.search(List.of("-"), input, destination);
+            Assertions.assertEquals("error\n", destination.toString());
+            Assertions.assertFalse(isClosed.get());
+        }
+    }
+
+    private String search(int trailingLines, int chunkSize) throws IOException {
+        var pattern = Pattern.compile("match");
+        var engine = new GrepEngine(() -> new RegexLineMatcher(pattern), trailingLines, chunkSize, executor, 3);
+        var destination = new StringWriter();
+        engine.search(List.of(firstFile.toString(), secondFile.toString()), InputStream.nullInputStream(),
+            destination);
+        return destination.toString();
+    }
+}
@@ -0,0 +1,91 @@
+package ru.itmo.se.cli.command.text;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * @author Sergey Sokolvyak
+ */
+public class LiteralLineMatcherTest {
+
+    @Test
+    @Tag("LiteralLineMatcher")
+    @DisplayName("Test detection of regular expressions without metacharacters")
+    public void testIsLiteral() {
+        Assertions.assertTrue(LiteralLineMatcher.isLiteral("req-42 done"));
+        Assertions.assertFalse(LiteralLineMatcher.isLiteral("req.42"));
+        Assertions.assertFalse(LiteralLineMatcher.isLiteral("a{2}"));
+        Assertions.assertFalse(LiteralLineMatcher.isLiteral("\\d"));
+        Assertions.assertFalse(LiteralLineMatcher.isLiteral(""));
+    }
+
+    @Test
+    @Tag("LiteralLineMatcher")
+    @DisplayName("Test literal search agrees with regular expression search")
+    public void testAgreesWithRegex() {
+        var random = new Random(7);
+        String alphabet = "abAB_- .ыЖ\u0301";
+        for (int iteration = 0; iteration < 2000; iteration++) {
+            String literal = randomString(random, alphabet, 1 + random.nextInt(3));
+            String line = randomString(random, alphabet, random.nextInt(20));
+            for (int flags = 0; flags < 4; flags++) {
+                boolean ignoreCase = (flags & 1) != 0;
+                boolean matchWords = (flags & 2) != 0;
+                String regex = matchWords ? "\\b" + Pattern.quote(literal) + "\\b" : Pattern.quote(literal);
+                var pattern = Pattern.compile(regex, ignoreCase ? Pattern.CASE_INSENSITIVE : 0);
+                Assertions.assertEquals(pattern.matcher(line).find(),
+                    new LiteralLineMatcher(literal, ignoreCase, matchWords).matches(line),
+                    String.format("literal '%s', line '%s', flags %d", literal, line, flags));
+            }
+        }
+    }
+
+    @Test
+    @Tag("LiteralLineMatcher")
+    @DisplayName("Test whole word search next to non-ASCII letter agrees with regular expression search")
+    public void testWordNextToNonAsciiLetter() {
+        var matcher = new LiteralLineMatcher("error", false, true);
+        var pattern = Pattern.compile("\\berror\\b");
+        for (String line : new String[]{"errorы", "ыerror", "ы error ы", "errors errorы"}) {
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            boolean expected = pattern.matcher(line).find();
+            Assertions.assertEquals(expected, matcher.matches(line), line);
+            Assertions.assertEquals(expected, matcher.matches(bytes, 0, bytes.length), line);
+        }
+    }
+
+    @Test
+    @Tag("LiteralLineMatcher")
+    @DisplayName("Test search in UTF-8 bytes agrees with search in decoded line")
+    public void testBytesAgreeWithChars() {
+        var random = new Random(11);
+        String[] alphabet = {"a", "b", "A", "B", "_", " ", "ж", "Ж", "€", "1", "\uD83D\uDE00"};
+        for (int iteration = 0; iteration < 2000; iteration++) {
+            String literal = randomString(random, alphabet, 1 + random.nextInt(3));
+            String line = randomString(random, alphabet, random.nextInt(20));
+            byte[] bytes = ("\n" + line + "\n").getBytes(StandardCharsets.UTF_8);
+            for (int flags = 0; flags < 4; flags++) {
+                var matcher = new LiteralLineMatcher(literal, (flags & 1) != 0, (flags & 2) != 0);
+                Assertions.assertEquals(matcher.matches(line), matcher.matches(bytes, 1, bytes.length - 1),
+                    String.format("literal '%s', line '%s', flags %d", literal, line, flags));
+            }
+        }
+    }
+
+    private static String randomString(Random random, String[] alphabet, int length) {
+        var sb = new StringBuilder();
+        for (int i = 0; i < length; i++)
+            sb.append(alphabet[random.nextInt(alphabet.length)]);
+        return sb.toString();
+    }
+
+    private static String randomString(Random random, String alphabet, int length) {
+        var sb = new StringBuilder();
+        for (int i = 0; i < length; i++)
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,60 @@
+package ru.itmo.se.cli.command.text;
+
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * @author Sergey Sokolvyak
+ */
+public class WordCountEngineTest {
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = Files.createTempFile("word-count-engine", ".txt");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    @Tag("WordCountEngine")
+    @DisplayName("Test counting lines, words and bytes in stream")
+    public void testCountInStream() throws IOException {
+        byte[] content = "  hello world\n\tsecond   line \nlast".getBytes();
+        long[] counts = new WordCountEngine().countInStream(new ByteArrayInputStream(content));
+        Assertions.assertArrayEquals(new long[]{2, 5, content.length}, counts);
+    }
+
+    @Test
+    @Tag("WordCountEngine")
+    @DisplayName("Test chunked counting in file matches counting in stream")
+    public void testCountInFileByChunks() throws IOException {
+        var random = new Random(42);
+        byte[] alphabet = "ab \n\t".getBytes();
+        var content = new byte[10_000];
+        for (int i = 0; i < content.length; i++)
+            content[i] = alphabet[random.nextInt(alphabet.length)];
+        Files.write(file, content);
+
+        long[] expected = new WordCountEngine().countInStream(new ByteArrayInputStream(content));
+        for (long chunkSize : new long[]{3, 64, 4096, content.length}) {
+            Assertions.assertArrayEquals(expected, new WordCountEngine(chunkSize).countInFile(file),
+                "chunk size " + chunkSize);
+        }
+    }
+
+    @Test
+    @Tag("WordCountEngine")
+    @DisplayName("Test counting in empty file")
+    public void testCountInEmptyFile() throws IOException {
+        Assertions.assertArrayEquals(new long[]{0, 0, 0}, new WordCountEngine(4).countInFile(file));
+    }
+}
@@ -0,0 +1,49 @@
+package ru.itmo.se.cli.environment;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * @author Sergey Sokolvyak
+ */
+public class CommandHashTableTest {
+    @Test
+    @Tag("Environment")
+    @DisplayName("Test command paths are remembered and invalidated")
+    public void testResolve(@TempDir Path directory) throws IOException {
+        Path first = Files.createDirectory(directory.resolve("first"));
+        Path second = Files.createDirectory(directory.resolve("second"));
+        Path tool = createExecutable(first.resolve("tool"));
+        Path otherTool = createExecutable(second.resolve("tool"));
+        var table = new CommandHashTable();
+
+        Assertions.assertEquals(Optional.of(tool), table.resolve("tool", first.toString()));
+        Assertions.assertEquals(Optional.of(tool), table.resolve("tool", first.toString()));
+        Assertions.assertEquals(Map.of(tool, 2L), table.getEntries(first.toString()));
+        Assertions.assertTrue(table.resolve("missing", first.toString()).isEmpty());
+        Assertions.assertTrue(table.resolve("./tool", first.toString()).isEmpty());
+
+        Assertions.assertEquals(Optional.of(otherTool), table.resolve("tool", second + ":" + first));
+        Assertions.assertEquals(Map.of(otherTool, 1L), table.getEntries(second + ":" + first));
+        Assertions.assertTrue(table.getEntries(first.toString()).isEmpty());
+        table.resolve("tool", second + ":" + first);
+
+        Files.delete(otherTool);
+        Assertions.assertEquals(Optional.of(tool), table.resolve("tool", second + ":" + first));
+
+        table.clear();
+        Assertions.assertTrue(table.getEntries(second + ":" + first).isEmpty());
+    }
+
+    private static Path createExecutable(Path file) throws IOException {
+        Files.writeString(file, "#!/bin/sh\n");
+        Assertions.assertTrue(file.toFile().setExecutable(true));
+        return file;
+    }
+}
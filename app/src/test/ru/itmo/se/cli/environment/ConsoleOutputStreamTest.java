@@ -0,0 +1,70 @@
+package ru.itmo.se.cli.environment;
+
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Sergey Sokolvyak
+ */
+public class ConsoleOutputStreamTest {
+    private final ByteArrayOutputStream target = new ByteArrayOutputStream();
+
+    @Test
+    @Tag("Environment")
+    @DisplayName("Test line policy prints complete lines")
+    public void testLinePolicy() throws IOException {
+        var stream = create(FlushPolicy.LINE, 1024);
+        stream.write("first".getBytes());
+        Assertions.assertEquals("", target.toString());
+        stream.write(" line\nsecond".getBytes());
+        Assertions.assertEquals("first line\nsecond", target.toString());
+    }
+
+    @Test
+    @Tag("Environment")
+    @DisplayName("Test buffer policy prints when buffer is full or pipeline is finished")
+    public void testBufferPolicy() throws IOException {
+        var stream = create(FlushPolicy.BUFFER, 8);
+        stream.write("line\n".getBytes());
+        Assertions.assertEquals("", target.toString());
+        stream.write("0123456789".getBytes());
+        Assertions.assertEquals("line\n012", target.toString());
+        stream.flushPipeline();
+        Assertions.assertEquals("line\n0123456789", target.toString());
+    }
+
+    @Test
+    @Tag("Environment")
+    @DisplayName("Test buffer policy prints idle output after interval")
+    public void testBufferPolicyDrainsIdleStream() throws Exception {
+        var stream = create(FlushPolicy.BUFFER, 1024);
+        stream.write("prompt> ".getBytes());
+        stream.flush();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (target.size() == 0 && System.nanoTime() < deadline)
+            Thread.sleep(ConsoleOutputStream.FLUSH_INTERVAL_MILLIS / 10);
+        Assertions.assertEquals("prompt> ", target.toString());
+    }
+
+    @Test
+    @Tag("Environment")
+    @DisplayName("Test deferred policy prints only when drained")
+    public void testDeferredPolicy() throws IOException {
+        var stream = create(FlushPolicy.DEFERRED, 1024);
+        stream.write("line\n".getBytes());
+        stream.flush();
+        stream.flushPipeline();
+        stream.close();
+        Assertions.assertEquals("", target.toString());
+        stream.drain();
+        Assertions.assertEquals("line\n", target.toString());
+    }
+
+    private ConsoleOutputStream create(FlushPolicy flushPolicy, int capacity) {
+        return new ConsoleOutputStream(Channels.newChannel(target), target, capacity, flushPolicy);
+    }
+}
@@ -0,0 +1,68 @@
+package ru.itmo.se.cli.environment;
+
+import org.junit.jupiter.api.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * @author Sergey Sokolvyak
+ */
+public class PersistentMapTest {
+    @Test
+    @Tag("Environment")
+    @DisplayName("Test persistent map against HashMap")
+    public void testPutAndGet() {
+        var random = new Random(7);
+        Map<String, Integer> expected = new HashMap<>();
+        PersistentMap<String, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 20_000; i++) {
+            String key = "k" + random.nextInt(5_000);
+            expected.put(key, i);
+            map = map.put(key, i);
+        }
+        Assertions.assertEquals(expected.size(), map.size());
+        for (Map.Entry<String, Integer> entry : expected.entrySet())
+            Assertions.assertEquals(entry.getValue(), map.get(entry.getKey()), entry.getKey());
+        Assertions.assertNull(map.get("missing"));
+    }
+
+    @Test
+    @Tag("Environment")
+    @DisplayName("Test persistent map with equal hash codes")
+    public void testCollisions() {
+        Assertions.assertEquals("Aa".hashCode(), "BB".hashCode());
+        PersistentMap<String, String> map = PersistentMap.<String, String>empty()
+            .put("Aa", "1").put("BB", "2").put("C", "3").put("AaAa", "4").put("BBBB", "5").put("AaBB", "6");
+        PersistentMap<String, String> updated = map.put("BB", "7");
+        Assertions.assertEquals(6, updated.size());
+        Assertions.assertEquals("1", updated.get("Aa"));
+        Assertions.assertEquals("7", updated.get("BB"));
+        Assertions.assertEquals("2", map.get("BB"));
+        Assertions.assertEquals("6", updated.get("AaBB"));
+        Assertions.assertNull(updated.get("BBAa"));
+        Assertions.assertSame(updated, updated.put("C", "3"));
+    }
+
+    @Test
+    @Tag("Environment")
+    @DisplayName("Test context snapshots are isolated")
+    public void testContextSnapshot() {
+        var parent = new Context();
+        parent.setOrAddVariable("x", "1");
+        Context child = parent.snapshot();
+        child.setOrAddVariable("x", "2");
+        child.setOrAddVariable("y", "3");
+        parent.setOrAddVariable("z", "4");
+
+        Assertions.assertEquals("1", parent.getVariable("x"));
+        Assertions.assertEquals("", parent.getVariable("y"));
+        Assertions.assertEquals("2", child.getVariable("x"));
+        Assertions.assertEquals("", child.getVariable("z"));
+
+        parent.reset();
+        Assertions.assertEquals("", parent.getVariable("x"));
+        Assertions.assertEquals("3", child.getVariable("y"));
+    }
+}
@@ -0,0 +1,60 @@
+package ru.itmo.se.cli.environment;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * @author Sergey Sokolvyak
+ */
+public class PipeDescriptorTest {
+    @Test
+    @Tag("PipeDescriptor")
+    @DisplayName("Test writer waits until reader frees space in full pipe")
+    public void testBackPressure() throws Exception {
+        var pipe = new PipeDescriptor(8);
+        var writer = CompletableFuture.runAsync(() -> {
+            try {
+                pipe.getOutputStream().write("0123456789abcdef".getBytes(StandardCharsets.UTF_8));
+                pipe.getOutputStream().close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        Assertions.assertThrows(TimeoutException.class, () -> writer.get(100, TimeUnit.MILLISECONDS));
+        Assertions.assertEquals(8, pipe.getInputStream().available());
+        InputStream input = pipe.getInputStream();
+        Assertions.assertEquals("0123456789abcdef", new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        writer.get(1, TimeUnit.SECONDS);
+        input.close();
+    }
+
+    @Test
+    @Tag("PipeDescriptor")
+    @DisplayName("Test channel writes wrap around ring and buffer returns to pool")
+    public void testChannelAndPool() throws IOException {
+        int capacity = 13;
+        var pipe = new PipeDescriptor(capacity);
+        byte[] chunk = new byte[5];
+
+        pipe.getOutputChannel().write(ByteBuffer.wrap("abcdefghij".getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertEquals(5, pipe.getInputStream().read(chunk));
+        Assertions.assertEquals(8, pipe.getOutputChannel().write(ByteBuffer.wrap("klmnopqr".getBytes(StandardCharsets.UTF_8))));
+        pipe.getOutputChannel().close();
+        Assertions.assertFalse(pipe.getOutputChannel().isOpen());
+        Assertions.assertEquals("fghijklmnopqr",
+            new String(pipe.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+
+        int idle = PipeBufferPool.getInstance().getIdleCount(capacity);
+        pipe.getInputStream().close();
+        Assertions.assertEquals(idle + 1, PipeBufferPool.getInstance().getIdleCount(capacity));
+        Assertions.assertThrows(BrokenPipeException.class, () -> pipe.getOutputStream().write(1));
+    }
+}
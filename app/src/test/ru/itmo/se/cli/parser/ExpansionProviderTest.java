@@ -0,0 +1,61 @@
+package ru.itmo.se.cli.parser;
+
+import org.junit.jupiter.api.*;
+import ru.itmo.se.cli.environment.Context;
+
+/**
+ * @author Sergey Sokolvyak
+ */
+public class ExpansionProviderTest {
+    private ExpansionProvider expansionProvider;
+    private Context context;
+
+    @BeforeEach
+    public void setUp() {
+        expansionProvider = new ExpansionProvider();
+        context = new Context();
+        context.setOrAddVariable("x", "1");
+        context.setOrAddVariable("_long_name2", "value");
+        context.setOrAddVariable("special", "$x \\1 ${x}");
+    }
+
+    @Test
+    @Tag("Parser")
+    @DisplayName("Test expansion of plain and brace substitutions")
+    public void testExpandString() {
+        Assertions.assertEquals("no substitutions", expansionProvider.expandString("no substitutions", context));
+        Assertions.assertEquals("1 value1-1", expansionProvider.expandString("$x ${_long_name2}$x-${x}", context));
+        Assertions.assertEquals("a=", expansionProvider.expandString("a=$undefined", context));
+        Assertions.assertEquals("$ $1 $$-1", expansionProvider.expandString("$ $1 $$-$x", context));
+    }
+
+    @Test
+    @Tag("Parser")
+    @DisplayName("Test expansion does not interpret values")
+    public void testExpandStringWithSpecialValue() {
+        Assertions.assertEquals("[$x \\1 ${x}]", expansionProvider.expandString("[$special]", context));
+    }
+
+    @Test
+    @Tag("Parser")
+    @DisplayName("Test repeated expansion uses current values")
+    public void testRepeatedExpandString() {
+        for (int i = 0; i < 5; i++) {
+            context.setOrAddVariable("x", Integer.toString(i));
+            Assertions.assertEquals("<" + i + ">", expansionProvider.expandString("<$x>", context));
+            Assertions.assertEquals(i + "!", expansionProvider.expandString("${x}!", context));
+            Assertions.assertEquals(i + "?", expansionProvider.expandString("$x?", context));
+        }
+    }
+
+    @Test
+    @Tag("Parser")
+    @DisplayName("Test expansion with bad substitutions")
+    public void testExpandStringWithBadSubstitution() {
+        for (var content : new String[]{"${", "${}", "${x", "${1x}", "a ${x-y}", "$x${"}) {
+            Throwable exception = Assertions.assertThrows(ParsingException.class,
+                () -> expansionProvider.expandString(content, context), content);
+            Assertions.assertEquals("Syntax error: bad substitution", exception.getMessage());
+        }
+    }
+}
@@ -3,17 +3,23 @@ package ru.itmo.se.cli.parser;
 import org.junit.jupiter.api.*;
 import ru.itmo.se.cli.environment.Context;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * @author Sergey Sokolvyak on 25.02.2021
  */
 public class SimpleCommandLineParserTest {
     private SimpleCommandLineParser simpleCommandLineParser;
+    private Context context;
 
     @BeforeEach
     public void setUp() {
         simpleCommandLineParser = new SimpleCommandLineParser(new ExpansionProvider());
+        context = new Context();
     }
 
     @Test
@@ -21,7 +27,7 @@ public class SimpleCommandLineParserTest {
     @DisplayName("Test parser with empty string")
     public void testParse0() {
         var input = "  ";
-        List<Token> parsedResult = simpleCommandLineParser.parse(input);
+        List<Token> parsedResult = simpleCommandLineParser.parse(input, context);
         Assertions.assertEquals(0, parsedResult.size());
     }
 
@@ -30,7 +36,7 @@ public class SimpleCommandLineParserTest {
     @DisplayName("Test parser with pipe")
     public void testParse1() {
         var input = "   echo  \"test.txt\"   |cat";
-        List<Token> parsedResult = simpleCommandLineParser.parse(input);
+        List<Token> parsedResult = simpleCommandLineParser.parse(input, context);
         Assertions.assertEquals(4, parsedResult.size());
 
         Assertions.assertEquals("echo", parsedResult.get(0).getContent());
@@ -51,7 +57,7 @@ public class SimpleCommandLineParserTest {
     @DisplayName("Test parser with keys")
     public void testParser2() {
         var input = " wc -n 2 -A \"fafa*\" ";
-        List<Token> parsedResult = simpleCommandLineParser.parse(input);
+        List<Token> parsedResult = simpleCommandLineParser.parse(input, context);
         Assertions.assertEquals(5, parsedResult.size(), parsedResult.toString());
 
         Assertions.assertEquals("wc", parsedResult.get(0).getContent());
@@ -75,7 +81,7 @@ public class SimpleCommandLineParserTest {
     @DisplayName("Test parser with pipes inside quotes")
     public void testParse3() {
         var input = "  echo  \" | test.txt\"|cat ' :<( !|'  ";
-        List<Token> parsedResult = simpleCommandLineParser.parse(input);
+        List<Token> parsedResult = simpleCommandLineParser.parse(input, context);
         Assertions.assertEquals(5, parsedResult.size(), parsedResult.toString());
 
         Assertions.assertEquals("echo", parsedResult.get(0).getContent());
@@ -99,8 +105,8 @@ public class SimpleCommandLineParserTest {
     @DisplayName("Test parser with variable declaration and substitution")
     public void testParser4() {
         var input = " ke=$var  echo  \"${var}, world! | test.txt\"|cat '$var :<( !|'  ";
-        Context.getInstance().setOrAddVariable("var", "Hello");
-        List<Token> parsedResult = simpleCommandLineParser.parse(input);
+        context.setOrAddVariable("var", "Hello");
+        List<Token> parsedResult = simpleCommandLineParser.parse(input, context);
         Assertions.assertEquals(7, parsedResult.size(), parsedResult.toString());
 
         Assertions.assertEquals("ke=Hello", parsedResult.get(0).getContent());
@@ -130,8 +136,8 @@ public class SimpleCommandLineParserTest {
     @DisplayName("Another test parser with variable declaration and substitution")
     public void testParser5() {
         var input = " ke=$var  var2=231  _super_var34=\"${var}, world! | test.txt\"|cat '$var :<( !|'  ";
-        Context.getInstance().setOrAddVariable("var", "Hello");
-        List<Token> parsedResult = simpleCommandLineParser.parse(input);
+        context.setOrAddVariable("var", "Hello");
+        List<Token> parsedResult = simpleCommandLineParser.parse(input, context);
         Assertions.assertEquals(6, parsedResult.size(), parsedResult.toString());
 
         Assertions.assertEquals("ke=Hello", parsedResult.get(0).getContent());
@@ -158,7 +164,7 @@ public class SimpleCommandLineParserTest {
     @DisplayName("Test parser with incomplete full quote")
     public void testParserWithSingleFullQuote() {
         Throwable exception = Assertions.assertThrows(ParsingException.class,
-            () -> simpleCommandLineParser.parse(" dafaf \" ' "));
+            () -> simpleCommandLineParser.parse(" dafaf \" ' ", context));
         Assertions.assertEquals("Syntax error: unexpected token \"", exception.getMessage());
     }
 
@@ -167,7 +173,7 @@ public class SimpleCommandLineParserTest {
     @DisplayName("Test parser with incomplete quote")
     public void testParserWithSingleWeakQuote() {
         Throwable exception = Assertions.assertThrows(ParsingException.class,
-            () -> simpleCommandLineParser.parse(" dhey ' ff "));
+            () -> simpleCommandLineParser.parse(" dhey ' ff ", context));
         Assertions.assertEquals("Syntax error: unexpected token '", exception.getMessage());
     }
 
@@ -176,11 +182,11 @@ public class SimpleCommandLineParserTest {
     @DisplayName("Test parser with forbidden symbol")
     public void testParserWitnForbiddenSymbols() {
         Throwable exception = Assertions.assertThrows(ParsingException.class,
-            () -> simpleCommandLineParser.parse(" dafaf ( "));
+            () -> simpleCommandLineParser.parse(" dafaf ( ", context));
         Assertions.assertEquals("Syntax error: unexpected token (", exception.getMessage());
 
         exception = Assertions.assertThrows(ParsingException.class,
-            () -> simpleCommandLineParser.parse(" echo >test.txt | grep <test.txt "));
+            () -> simpleCommandLineParser.parse(" echo >test.txt | grep <test.txt ", context));
         Assertions.assertEquals("Syntax error: unexpected token >", exception.getMessage());
     }
 
@@ -189,7 +195,7 @@ public class SimpleCommandLineParserTest {
     @DisplayName("Test parser with wrong substitution")
     public void testParserWithWrongSubstitution1() {
         Throwable exception = Assertions.assertThrows(ParsingException.class,
-            () -> simpleCommandLineParser.parse("var=${ "));
+            () -> simpleCommandLineParser.parse("var=${ ", context));
         Assertions.assertEquals("Syntax error: bad substitution", exception.getMessage());
     }
 
@@ -198,7 +204,107 @@ public class SimpleCommandLineParserTest {
     @DisplayName("Another test parser with wrong substitution")
     public void testParserWithWrongSubstitution2() {
         Throwable exception = Assertions.assertThrows(ParsingException.class,
-            () -> simpleCommandLineParser.parse("var=${}"));
+            () -> simpleCommandLineParser.parse("var=${}", context));
         Assertions.assertEquals("Syntax error: bad substitution", exception.getMessage());
     }
+
+    @Test
+    @Tag("Parser")
+    @DisplayName("Test parser reuses cached lines with current variable values")
+    public void testParserWithCachedLine() {
+        var parser = new SimpleCommandLineParser(new ExpansionProvider(), new ParsedLineCache(1));
+        context.setOrAddVariable("var", "x=1");
+        List<Token> parsedResult = parser.parse(" $var  echo \"$var\" ", context);
+        Assertions.assertEquals(4, parsedResult.size(), parsedResult.toString());
+        Assertions.assertEquals(Token.Type.VarDecl, parsedResult.get(0).getType());
+
+        context.setOrAddVariable("var", "cat");
+        parsedResult = parser.parse("$var  echo \"$var\"", context);
+        Assertions.assertEquals(3, parsedResult.size(), parsedResult.toString());
+        Assertions.assertEquals("cat", parsedResult.get(0).getContent());
+        Assertions.assertEquals(Token.Type.Command, parsedResult.get(0).getType());
+        Assertions.assertEquals("cat", parsedResult.get(2).getContent());
+        Assertions.assertEquals(Token.Type.Arg, parsedResult.get(2).getType());
+        Assertions.assertEquals(1, parser.getParsedLineCache().getHitCount());
+        Assertions.assertEquals(1, parser.getParsedLineCache().getMissCount());
+
+        parser.parse("echo other", context);
+        parser.parse("$var  echo \"$var\"", context);
+        Assertions.assertEquals(1, parser.getParsedLineCache().getHitCount());
+        Assertions.assertEquals(3, parser.getParsedLineCache().getMissCount());
+        Assertions.assertEquals(1, parser.getParsedLineCache().size());
+    }
+
+    @Test
+    @Tag("Parser")
+    @DisplayName("Test least recently used line is evicted from cache")
+    public void testParsedLineCacheEviction() {
+        var parser = new SimpleCommandLineParser(new ExpansionProvider(), new ParsedLineCache(2));
+        for (String line : new String[]{"echo a", "echo b", "echo a", "echo c", "echo a", "echo b"})
+            parser.parse(line, context);
+        Assertions.assertEquals(2, parser.getParsedLineCache().getHitCount());
+        Assertions.assertEquals(4, parser.getParsedLineCache().getMissCount());
+        Assertions.assertEquals(2, parser.getParsedLineCache().size());
+    }
+
+    @Test
+    @Tag("Parser")
+    @DisplayName("Test parser after syntax error")
+    public void testParserAfterSyntaxError() {
+        Assertions.assertThrows(ParsingException.class, () -> simpleCommandLineParser.parse("echo a${", context));
+        List<Token> parsedResult = simpleCommandLineParser.parse("echo b", context);
+        Assertions.assertEquals(2, parsedResult.size(), parsedResult.toString());
+        Assertions.assertEquals("b", parsedResult.get(1).getContent());
+    }
+
+    @Test
+    @Tag("Parser")
+    @DisplayName("Test one parser shared between threads")
+    public void testParserFromSeveralThreads() throws Exception {
+        var parser = new SimpleCommandLineParser(new ExpansionProvider(), new ParsedLineCache(4));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                int id = thread;
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        String argument = "arg" + (id + i) % 16;
+                        List<Token> parsedResult = parser.parse(" echo '" + argument + "' | wc ", context);
+                        Assertions.assertEquals(4, parsedResult.size(), parsedResult.toString());
+                        Assertions.assertEquals(argument, parsedResult.get(1).getContent());
+                    }
+                }));
+            }
+            for (Future<?> result : results)
+                result.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(16000, parser.getParsedLineCache().getHitCount()
+            + parser.getParsedLineCache().getMissCount());
+        Assertions.assertTrue(parser.getParsedLineCache().size() <= 4);
+    }
+
+    @Test
+    @Tag("Parser")
+    @DisplayName("Test token after time keyword starts a command")
+    public void testParserAfterTimeKeyword() {
+        List<Token> parsedResult = simpleCommandLineParser.parse("time x=1 echo time", context);
+        Assertions.assertEquals(List.of(Token.Type.Command, Token.Type.VarDecl, Token.Type.Pipe,
+            Token.Type.Command, Token.Type.Arg), types(parsedResult));
+
+        parsedResult = simpleCommandLineParser.parse("time ls", context);
+        Assertions.assertEquals(List.of(Token.Type.Command, Token.Type.Command), types(parsedResult));
+
+        parsedResult = simpleCommandLineParser.parse("echo time ls", context);
+        Assertions.assertEquals(List.of(Token.Type.Command, Token.Type.Arg, Token.Type.Arg), types(parsedResult));
+    }
+
+    private static List<Token.Type> types(List<Token> tokens) {
+        List<Token.Type> types = new ArrayList<>();
+        for (Token token : tokens)
+            types.add(token.getType());
+        return types;
+    }
 }
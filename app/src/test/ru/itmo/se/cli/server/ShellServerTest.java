@@ -0,0 +1,134 @@
+package ru.itmo.se.cli.server;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import ru.itmo.se.cli.Shell;
+import ru.itmo.se.cli.command.execution.ConcurrentCommandExecutor;
+import ru.itmo.se.cli.parser.ExpansionProvider;
+import ru.itmo.se.cli.parser.SimpleCommandLineParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+/**
+ * @author Sergey Sokolvyak
+ */
+public class ShellServerTest {
+    private static final String TOKEN = DaemonToken.generate();
+
+    private ShellServer server;
+    private Thread serverThread;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        var shell = new Shell(new SimpleCommandLineParser(new ExpansionProvider()), new ConcurrentCommandExecutor());
+        server = new ShellServer(shell, 0, TOKEN);
+        serverThread = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        serverThread.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        server.close();
+        serverThread.join();
+    }
+
+    @Test
+    @Tag("ShellServer")
+    @DisplayName("Test sessions of the server have separate variables and output")
+    public void testSeparateSessions() throws IOException {
+        try (var first = Client.authenticated(server.getPort());
+             var second = Client.authenticated(server.getPort())) {
+            first.send("x=first");
+            first.send("echo ready");
+            Assertions.assertEquals("ready", first.readLine());
+
+            second.send("x=second");
+            second.send("echo $x | cat");
+            Assertions.assertEquals("second", second.readLine());
+
+            first.send("echo ${x} | wc");
+            Assertions.assertEquals("      1      1      6 ", first.readLine());
+            first.send("exit");
+            Assertions.assertNull(first.readLine());
+
+            second.send("echo \"unclosed");
+            Assertions.assertEquals("Syntax error: unexpected token \"", second.readLine());
+        }
+    }
+
+    @Test
+    @Tag("ShellServer")
+    @DisplayName("Test connections without the token are rejected before a session starts")
+    public void testUnauthenticatedConnection() throws IOException {
+        for (String firstLine : new String[]{"echo hacked", TOKEN.substring(1), TOKEN + "0", ""}) {
+            try (var client = new Client(server.getPort())) {
+                client.send(firstLine);
+                Assertions.assertEquals("Authentication failed", client.readLine());
+                Assertions.assertNull(client.readLine());
+            }
+        }
+    }
+
+    @Test
+    @Tag("ShellServer")
+    @DisplayName("Test token file is readable only by its owner")
+    public void testTokenFile(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("cli").resolve("daemon.token");
+        DaemonToken.write(file, TOKEN);
+        Assertions.assertEquals(TOKEN + "\n", Files.readString(file));
+        if (Files.getFileStore(file).supportsFileAttributeView("posix")) {
+            Assertions.assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+            Assertions.assertEquals("rwx------",
+                PosixFilePermissions.toString(Files.getPosixFilePermissions(file.getParent())));
+        }
+    }
+
+    private static final class Client implements AutoCloseable {
+        private final Socket socket;
+        private final PrintWriter writer;
+        private final BufferedReader reader;
+
+        private Client(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setSoTimeout(10_000);
+            OutputStream output = socket.getOutputStream();
+            writer = new PrintWriter(output, true);
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        }
+
+        private static Client authenticated(int port) throws IOException {
+            var client = new Client(port);
+            client.send(TOKEN);
+            return client;
+        }
+
+        private void send(String line) {
+            writer.print(line + "\n");
+            writer.flush();
+        }
+
+        private String readLine() throws IOException {
+            return reader.readLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package ru.itmo.se.cli.trace;
+
+import org.junit.jupiter.api.*;
+import ru.itmo.se.cli.command.builder.CommandsPipelineBuilder;
+import ru.itmo.se.cli.command.execution.ConcurrentCommandExecutor;
+import ru.itmo.se.cli.command.execution.TracingCommandExecutor;
+import ru.itmo.se.cli.environment.Console;
+import ru.itmo.se.cli.environment.Context;
+import ru.itmo.se.cli.environment.Session;
+import ru.itmo.se.cli.parser.ExpansionProvider;
+import ru.itmo.se.cli.parser.SimpleCommandLineParser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @author Sergey Sokolvyak
+ */
+public class TracerTest {
+    @Test
+    @Tag("Tracer")
+    @DisplayName("Test trace contains spans of parse, build and every stage")
+    public void testTrace() throws IOException {
+        var output = new ByteArrayOutputStream();
+        var session = new Session(new Context(), new Console(InputStream.nullInputStream(), output, output));
+        var parser = new SimpleCommandLineParser(new ExpansionProvider());
+        var executor = new TracingCommandExecutor(new ConcurrentCommandExecutor());
+
+        Path file = Files.createTempFile("tracer", ".json");
+        try {
+            try (Tracer ignored = Tracer.start(file)) {
+                Assertions.assertTrue(Tracer.isEnabled());
+                executor.execute(CommandsPipelineBuilder.buildPipe(
+                    parser.parse("echo hello world | wc", session.getContext()), session), session);
+            }
+            Assertions.assertFalse(Tracer.isEnabled());
+            Assertions.assertSame(Span.NOOP, Tracer.span("test", "disabled"));
+
+            String trace = Files.readString(file).trim();
+            Assertions.assertTrue(trace.startsWith("[") && trace.endsWith("]"));
+            for (String name : new String[]{"parse", "expand", "build", "execute", "echo", "wc"})
+                Assertions.assertTrue(trace.contains("{\"name\":\"" + name + "\""), name);
+            Assertions.assertTrue(trace.contains("\"bytesWritten\":12"));
+            Assertions.assertTrue(trace.contains("\"cacheMisses\":1"));
+            Assertions.assertFalse(trace.contains(",\n]"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    @Tag("Tracer")
+    @DisplayName("Test failed trace write stops tracing without failing the span")
+    public void testWriteFailure() throws IOException {
+        var writer = new BrokenWriter();
+        Tracer tracer = Tracer.start(writer);
+        try {
+            writer.isBroken = true;
+            Assertions.assertDoesNotThrow(() -> Tracer.span("test", "first").close());
+            Assertions.assertFalse(Tracer.isEnabled());
+            Assertions.assertSame(Span.NOOP, Tracer.span("test", "second"));
+            Assertions.assertEquals(1, writer.failedWrites);
+            Assertions.assertTrue(writer.isClosed);
+        } finally {
+            tracer.close();
+        }
+    }
+
+    private static final class BrokenWriter extends Writer {
+        private boolean isBroken;
+        private boolean isClosed;
+        private int failedWrites;
+
+        @Override
+        public void write(char[] buffer, int off, int len) throws IOException {
+            if (isBroken) {
+                failedWrites++;
+                throw new IOException("No space left on device");
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+            isClosed = true;
+        }
+    }
+}